@@ -0,0 +1,88 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import es.danirod.rectball.model.Board;
+import es.danirod.rectball.model.Coordinate;
+
+/**
+ * Measures how long it takes to generate a board, both from scratch and
+ * when only the region of a combination is regenerated.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    @Param({"6", "8", "16", "64"})
+    public int size;
+
+    private Board board;
+
+    /** Corners of the regions to regenerate, as in a regular game. */
+    private Coordinate[] regions;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        board = new Board(size);
+        board.randomize();
+
+        Random random = new Random(0x5EED);
+        regions = new Coordinate[256 * 2];
+        for (int i = 0; i < regions.length; i += 2) {
+            int minX = random.nextInt(size - 1);
+            int minY = random.nextInt(size - 1);
+            int maxX = minX + 1 + random.nextInt(size - minX - 1);
+            int maxY = minY + 1 + random.nextInt(size - minY - 1);
+            regions[i] = new Coordinate(minX, minY);
+            regions[i + 1] = new Coordinate(maxX, maxY);
+        }
+    }
+
+    @Benchmark
+    public Board randomize() {
+        board.randomize();
+        return board;
+    }
+
+    @Benchmark
+    public Board randomizeRegion() {
+        next = (next + 2) % regions.length;
+        board.randomize(regions[next], regions[next + 1]);
+        return board;
+    }
+}
@@ -0,0 +1,75 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.benchmarks;
+
+import java.util.Random;
+
+import es.danirod.rectball.model.BallColor;
+import es.danirod.rectball.model.Board;
+import es.danirod.rectball.model.CombinationFinder;
+
+/**
+ * Prepares the boards used by the benchmarks. Boards are painted using a
+ * fixed seed, so that every run measures the same boards.
+ */
+final class Boards {
+
+    /** How many balls are prepared in total for every benchmark. */
+    private static final int BALLS = 256 * 6 * 6;
+
+    private static final BallColor[] COLORS = BallColor.values();
+
+    private Boards() {
+    }
+
+    /**
+     * How many boards to prepare. Large boards have thousands of
+     * combinations, so less of them are prepared to keep memory usage low.
+     *
+     * @param size the size of the boards
+     * @return how many boards of this size should be prepared
+     */
+    static int pool(int size) {
+        return Math.max(4, BALLS / (size * size));
+    }
+
+    /**
+     * Create a pool of boards painted at random using only the first
+     * colors. The less colors, the more combinations there are. As in a
+     * regular game, every board has at least a combination.
+     *
+     * @param size   the size of the boards
+     * @param colors how many colors to use, between 2 and 8
+     * @param seed   the seed used to paint the boards
+     * @return the boards
+     */
+    static Board[] random(int size, int colors, long seed) {
+        Random random = new Random(seed);
+        Board[] boards = new Board[pool(size)];
+        for (int i = 0; i < boards.length; i++) {
+            boards[i] = new Board(size, colors);
+            do {
+                for (int x = 0; x < size; x++) {
+                    for (int y = 0; y < size; y++) {
+                        boards[i].setColor(x, y, COLORS[random.nextInt(colors)]);
+                    }
+                }
+            } while (!CombinationFinder.hasAnyCombination(boards[i]));
+        }
+        return boards;
+    }
+}
@@ -0,0 +1,132 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import es.danirod.rectball.model.Bounds;
+import es.danirod.rectball.model.GameState;
+import es.danirod.rectball.model.replay.Replay;
+import es.danirod.rectball.model.replay.ReplayEngine;
+import es.danirod.rectball.model.replay.ReplayFormat;
+import es.danirod.rectball.model.replay.ReplayRecorder;
+import es.danirod.rectball.model.replay.ReplayResult;
+
+/**
+ * Measures how many games per second can be replayed. By default, games
+ * are made up by always picking the first combination. Real games can be
+ * used instead by pointing the rectball.replays system property to a
+ * directory with replay files.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReplayBenchmark {
+
+    @Param({"6", "8", "16"})
+    public int size;
+
+    /** How many combinations are made in every made up game. */
+    @Param({"100"})
+    public int moves;
+
+    private final ReplayEngine engine = new ReplayEngine();
+
+    private Replay[] replays;
+
+    private byte[][] encoded;
+
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Replay> list = new ArrayList<>();
+        String directory = System.getProperty("rectball.replays");
+        if (directory != null) {
+            File[] files = new File(directory).listFiles((dir, name) -> name.endsWith(".rbr"));
+            if (files != null) {
+                for (File file : files) {
+                    list.add(ReplayFormat.decode(Files.readAllBytes(file.toPath())));
+                }
+            }
+        } else {
+            for (int i = 0; i < 64; i++) {
+                list.add(play(size, 0x5EED + i, moves));
+            }
+        }
+        replays = list.toArray(new Replay[0]);
+        encoded = new byte[replays.length][];
+        for (int i = 0; i < replays.length; i++) {
+            encoded[i] = ReplayFormat.encode(replays[i]);
+        }
+    }
+
+    @Benchmark
+    public ReplayResult replay() {
+        next = (next + 1) % replays.length;
+        return engine.run(replays[next]);
+    }
+
+    @Benchmark
+    public ReplayResult decodeAndReplay() throws IOException {
+        next = (next + 1) % encoded.length;
+        return engine.run(ReplayFormat.decode(encoded[next]));
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        next = (next + 1) % replays.length;
+        return ReplayFormat.encode(replays[next]);
+    }
+
+    /** Make up a game where the player makes a combination every second. */
+    private static Replay play(int size, long seed, int moves) {
+        GameState state = new GameState(size);
+        state.reset(seed);
+        ReplayRecorder recorder = new ReplayRecorder(seed, size);
+        float time = 0f;
+        for (int i = 0; i < moves; i++) {
+            time += 1f;
+            Bounds bounds = state.getBoard().getAnalysis().getCombination();
+            recorder.select(time, bounds);
+            state.scoreCombination(bounds);
+            state.regenerate(bounds);
+        }
+        recorder.end(time + 30f, state.getScore());
+        return recorder.toReplay();
+    }
+}
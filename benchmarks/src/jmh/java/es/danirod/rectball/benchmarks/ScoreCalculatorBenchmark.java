@@ -0,0 +1,84 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import es.danirod.rectball.model.Board;
+import es.danirod.rectball.model.Bounds;
+import es.danirod.rectball.model.ScoreCalculator;
+
+/**
+ * Measures how long it takes to give score for a combination, both when
+ * the board has already been analysed and when a ball has just changed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScoreCalculatorBenchmark {
+
+    @Param({"6", "8", "16", "64"})
+    public int size;
+
+    @Param({"2", "3", "4", "6", "8"})
+    public int colors;
+
+    private Board[] boards;
+
+    private Bounds[] combinations;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        boards = Boards.random(size, colors, 0x5EED);
+        combinations = new Bounds[boards.length];
+        for (int i = 0; i < boards.length; i++) {
+            combinations[i] = boards[i].getAnalysis().getCombination();
+        }
+    }
+
+    @Benchmark
+    public int calculate() {
+        next = (next + 1) % boards.length;
+        return new ScoreCalculator(boards[next], combinations[next]).calculate();
+    }
+
+    @Benchmark
+    public int calculateAfterChange() {
+        next = (next + 1) % boards.length;
+        Board board = boards[next];
+        // Painting a ball with its own color still invalidates the analysis.
+        board.setColor(0, 0, board.getColor(0, 0));
+        return new ScoreCalculator(board, combinations[next]).calculate();
+    }
+}
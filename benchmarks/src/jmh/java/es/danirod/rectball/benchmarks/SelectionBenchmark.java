@@ -0,0 +1,94 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import es.danirod.rectball.model.Ball;
+import es.danirod.rectball.model.Board;
+import es.danirod.rectball.model.Bounds;
+
+/**
+ * Measures how long it takes to validate what the player has selected.
+ * Selections alternate between valid combinations and random rectangles
+ * that are not valid most of the time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SelectionBenchmark {
+
+    @Param({"6", "8", "16", "64"})
+    public int size;
+
+    @Param({"2", "3", "4", "6", "8"})
+    public int colors;
+
+    private Board[] boards;
+
+    private List<List<Ball>> selections;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        boards = Boards.random(size, colors, 0x5EED);
+        selections = new ArrayList<>();
+        for (int i = 0; i < boards.length; i++) {
+            Board board = boards[i];
+            Bounds bounds = board.getAnalysis().getCombination();
+            if (i % 2 == 1) {
+                bounds = new Bounds(i % (size - 1), 0, size - 1, (i / 2) % (size - 1) + 1);
+            }
+            selections.add(Arrays.asList(
+                    board.getBall(bounds.minX, bounds.minY),
+                    board.getBall(bounds.maxX, bounds.minY),
+                    board.getBall(bounds.minX, bounds.maxY),
+                    board.getBall(bounds.maxX, bounds.maxY)));
+        }
+    }
+
+    @Benchmark
+    public boolean selection() {
+        next = (next + 1) % boards.length;
+        return boards[next].selection(selections.get(next));
+    }
+
+    @Benchmark
+    public Bounds fromBallList() {
+        next = (next + 1) % boards.length;
+        return Bounds.fromBallList(selections.get(next));
+    }
+}
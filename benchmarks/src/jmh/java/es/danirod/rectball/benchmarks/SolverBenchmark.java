@@ -0,0 +1,82 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import es.danirod.rectball.model.Board;
+import es.danirod.rectball.model.ScoringRules;
+import es.danirod.rectball.model.SplitMix64;
+import es.danirod.rectball.model.solver.ParallelSolver;
+import es.danirod.rectball.model.solver.Solution;
+import es.danirod.rectball.model.solver.Solver;
+
+/**
+ * Measures how long it takes to search for the best move without a time
+ * budget, using a single thread and using the parallel solver.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+
+    @Param({"1", "2", "3"})
+    public int depth;
+
+    @Param({"4"})
+    public int samples;
+
+    private Board[] boards;
+
+    private Solver solver, parallelSolver;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        boards = Boards.random(6, 4, 0x5EED);
+        solver = new Solver(ScoringRules.DEFAULT, depth, samples, 0);
+        parallelSolver = new ParallelSolver(ScoringRules.DEFAULT, depth, samples, 0);
+    }
+
+    @Benchmark
+    public Solution solve() {
+        next = (next + 1) % boards.length;
+        return solver.solve(boards[next], new SplitMix64(next));
+    }
+
+    @Benchmark
+    public Solution solveParallel() {
+        next = (next + 1) % boards.length;
+        return parallelSolver.solve(boards[next], new SplitMix64(next));
+    }
+}
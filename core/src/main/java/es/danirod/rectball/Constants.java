@@ -16,6 +16,8 @@
  */
 package es.danirod.rectball;
 
+import es.danirod.rectball.model.GameTimer;
+
 /**
  * Class for holding constant values to keep them centralized.
  */
@@ -40,5 +42,5 @@ public class Constants {
      */
     public static final int STAGE_PADDING = 20;
 
-    public static final int SECONDS = 30;
+    public static final int SECONDS = GameTimer.SECONDS;
 }
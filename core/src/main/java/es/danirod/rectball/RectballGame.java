@@ -24,8 +24,10 @@ import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.utils.I18NBundle;
+import es.danirod.rectball.model.BallColor;
 import es.danirod.rectball.model.GameState;
 import es.danirod.rectball.scene2d.RectballSkin;
 import es.danirod.rectball.screens.*;
@@ -180,12 +182,15 @@ public class RectballGame extends StateBasedGame {
     public void updateBallAtlas() {
         boolean isColorblind = settings.getColorblindMode();
         Skin gameSkin = getAppSkin();
-        String[] gems = new String[]{ "blue", "red", "green", "yellow"};
         ballAtlas = new TextureAtlas();
-        for (String gem : gems) {
+        for (BallColor color : BallColor.values()) {
+            String gem = color.name().toLowerCase(java.util.Locale.ROOT);
             String source = "gem_" + gem + (isColorblind ? "_alt" : "");
-            String target = "ball_" + gem;
-            ballAtlas.addRegion(target, gameSkin.getRegion(source));
+            // Colors without a gem of their own are drawn by BallActor
+            // tinting the gray gem.
+            if (gameSkin.has(source, TextureRegion.class)) {
+                ballAtlas.addRegion("ball_" + gem, gameSkin.getRegion(source));
+            }
         }
         ballAtlas.addRegion("ball_gray", gameSkin.getRegion("gem_gray"));
     }
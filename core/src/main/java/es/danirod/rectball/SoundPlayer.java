@@ -17,20 +17,29 @@
 package es.danirod.rectball;
 
 import com.badlogic.gdx.audio.Sound;
-import com.badlogic.gdx.math.MathUtils;
+import es.danirod.rectball.model.RandomSource;
+import es.danirod.rectball.model.SplitMix64;
 
 public class SoundPlayer {
 
     private RectballGame game;
 
+    /** Used to play every sound with a slightly different pitch. */
+    private final RandomSource random;
+
     public SoundPlayer(RectballGame game) {
+        this(game, new SplitMix64());
+    }
+
+    public SoundPlayer(RectballGame game, RandomSource random) {
         this.game = game;
+        this.random = random;
     }
 
     public void playSound(SoundCode code) {
         if (canPlaySound()) {
             Sound sound = game.manager.get(code.internalPath);
-            float pitch = MathUtils.random(0.7f, 1.3f);
+            float pitch = 0.7f + 0.6f * random.nextFloat();
             sound.play(1f, pitch, 0);
         }
     }
@@ -16,10 +16,21 @@
  */
 package es.danirod.rectball.gameservices
 
+import com.badlogic.gdx.Gdx
 import es.danirod.rectball.model.GameState
+import es.danirod.rectball.model.replay.Replay
+import es.danirod.rectball.model.replay.ReplayVerifier
 import es.danirod.rectball.platform.GameServices
 
-class GameUploader(state: GameState, private val services: GameServices) {
+/**
+ * Sends the score of a game to the game services. The replay of the game
+ * is played again first, and nothing is sent unless the replay confirms
+ * the score. Games that were not recorded are never sent, except games
+ * restored after the system closed the app whose recording was lost: they
+ * are sent like before there were replays, and logged as unverified.
+ */
+class GameUploader(state: GameState, private val replay: Replay?, private val restored: Boolean,
+                   private val services: GameServices) {
 
     // Google Play: score has to be submitted in milliseconds
     private val score = state.score.toLong()
@@ -27,10 +38,29 @@ class GameUploader(state: GameState, private val services: GameServices) {
     private val time = state.elapsedTime.toLong() * 1000L
 
     fun submit() {
+        if (!verify())
+            return
         submitLeaderboard()
         submitAchievements()
     }
 
+    private fun verify(): Boolean {
+        if (replay == null) {
+            if (restored) {
+                Gdx.app.log("GameUploader", "Score submitted unverified: the recording of the restored game was lost")
+                return true
+            }
+            Gdx.app.error("GameUploader", "Score not submitted: the game was not recorded")
+            return false
+        }
+        val verification = ReplayVerifier().verify(replay)
+        if (!verification.isAccepted || replay.claimedScore.toLong() != score) {
+            Gdx.app.error("GameUploader", "Score not submitted: ${verification.verdict}")
+            return false
+        }
+        return true
+    }
+
     private fun submitLeaderboard() {
         services.sendLeaderboard(Leaderboard.HighestScore, score)
         services.sendLeaderboard(Leaderboard.HighestLength, time)
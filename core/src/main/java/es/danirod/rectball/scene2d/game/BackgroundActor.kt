@@ -16,44 +16,64 @@
  */
 package es.danirod.rectball.scene2d.game
 
+import com.badlogic.gdx.graphics.Color
+import com.badlogic.gdx.graphics.g2d.Batch
 import com.badlogic.gdx.graphics.g2d.TextureAtlas
+import com.badlogic.gdx.graphics.g2d.TextureRegion
 import com.badlogic.gdx.math.Interpolation
 import com.badlogic.gdx.math.MathUtils
 import com.badlogic.gdx.scenes.scene2d.Action
-import com.badlogic.gdx.scenes.scene2d.Group
+import com.badlogic.gdx.scenes.scene2d.Actor
 import com.badlogic.gdx.scenes.scene2d.actions.Actions
 import com.badlogic.gdx.scenes.scene2d.actions.TemporalAction
-import es.danirod.rectball.model.Ball
 import es.danirod.rectball.model.BallColor
-import es.danirod.rectball.utils.AlwaysGrowingMatrix
-
-class BackgroundActor(private val atlas: TextureAtlas) : Group() {
+import es.danirod.rectball.model.RandomSource
+import es.danirod.rectball.model.SplitMix64
+import es.danirod.rectball.utils.IntGrowingGrid
+import java.util.Locale
+
+/**
+ * The balls that scroll up behind the main menu. There are no actors for
+ * the balls: the colors are kept as a ring buffer of rows, so scrolling a
+ * row up is moving the first row of the ring, and every ball is drawn with
+ * the same pulsing scale.
+ */
+class BackgroundActor(
+    atlas: TextureAtlas,
+    private val random: RandomSource = SplitMix64(),
+) : Actor() {
 
     private val size = 48f
 
-    private val actors = AlwaysGrowingMatrix { x, y ->
-        val ball = Ball(x, y).apply {
-            val randomColor = MathUtils.random(BallColor.entries.size - 1)
-            color = BallColor.entries[randomColor]
-        }
-        BallActor(ball, atlas).apply {
-            setColoured(true)
-            setSize(size, size)
-            setPosition(size * x, size * y)
-            layout()
-        }
-    }
+    /** The index of the color of the balls, by column and by row of the ring. */
+    private val colors = IntGrowingGrid { _, _ -> random.nextInt(BallColor.DEFAULT_COUNT) }
 
-    private val elements = Group()
+    /** The region and the tint of every color, like a BallActor paints them. */
+    private val regions: Array<TextureRegion> = BallColor.entries.map {
+        atlas.findRegion("ball_${it.toString().lowercase(Locale.ROOT)}") ?: atlas.findRegion("ball_gray")
+    }.toTypedArray()
+    private val tints: Array<Color> = BallColor.entries.map {
+        if (atlas.findRegion("ball_${it.toString().lowercase(Locale.ROOT)}") != null) Color.WHITE else BallActor.tintOf(it)
+    }.toTypedArray()
+
+    /** The row of the ring displayed at the bottom of the actor. */
+    private var firstRow = 0
+
+    /** How far the rows have moved up since the last time they wrapped. */
+    private var scroll = 0f
+
+    /** The scale of every ball, which beats. */
+    private var pulse = 1f
+
+    private var beatTicks = 0f
 
     init {
-        addActor(elements)
-        elements.addAction(Actions.forever(moveAction()))
+        addAction(Actions.forever(moveAction()))
     }
 
     private fun moveAction(): Action = object : TemporalAction(2f) {
         override fun update(percent: Float) {
-            actor.y = -size / 2 + size * percent
+            scroll = -size / 2 + size * percent
         }
 
         override fun begin() {
@@ -61,38 +81,19 @@ class BackgroundActor(private val atlas: TextureAtlas) : Group() {
         }
     }
 
-    override fun sizeChanged() {
-        invalidate()
-        elements.setSize(width, height)
-    }
-
-    private fun test() {
-        println("$rows x $cols")
-        for (y in 0 until rows) {
-            for (x in 0 until cols) {
-                print(actors.get(x, y).ball.color.name[0])
-            }
-            print("\n")
-        }
-    }
-
+    /**
+     * Move every row one line up, and the last line back to the bottom.
+     * Every row stays where it is in the ring, only the first row changes.
+     */
     fun swapLines() {
-        /* Take elements from the last line. */
-        val lastLine = (0 until cols).map { i -> actors.get(i, rows - 1).ball.color }
-
-        /* Move items one line up. */
-        for (y in (rows - 1) downTo 1 ) {
-            for (x in 0 until cols) {
-                actors.get(x, y).ball.color = actors.get(x, y - 1).ball.color
-                actors.get(x, y).syncColor()
-            }
+        if (rows > 0) {
+            firstRow = (firstRow + rows - 1) % rows
         }
+    }
 
-        /* Then the last line. */
-        (0 until cols).map { i ->
-            actors.get(i, 0).ball.color = lastLine[i]
-            actors.get(i, 0).syncColor()
-        }
+    override fun sizeChanged() {
+        // The ring has as many rows as the actor, start it over.
+        firstRow = 0
     }
 
     /** How many rows should there be in this actor according to its size. */
@@ -103,36 +104,32 @@ class BackgroundActor(private val atlas: TextureAtlas) : Group() {
     private val cols
         get() = MathUtils.ceil(width / size)
 
-    private fun invalidate() {
-        if (rows == 0 || cols == 0) {
-            return
-        }
-
-        elements.clearChildren()
-        for (y in 0 until rows) {
-            for (x in 0 until cols) {
-                elements.addActor(actors.get(x, y))
-            }
-        }
-    }
-
     override fun act(delta: Float) {
         super.act(delta)
 
-        /* Update the heartbeat effect of the children. (I am not using actions
-         * for this, since the background could be invalidated and new children
-         * could be added at any time and I found too difficult to synchronize
-         * new actions with existing ones.) */
+        /* Update the heartbeat effect. Every ball shares the same scale,
+         * which is applied when the balls are drawn. */
         beatTicks += delta
         while (beatTicks >= 4)
             beatTicks -= 4
-        val scale = Interpolation.sine.apply(0.75f, 0.95f, beatTicks / 2f)
+        pulse = Interpolation.sine.apply(0.75f, 0.95f, beatTicks / 2f)
+    }
+
+    override fun draw(batch: Batch, parentAlpha: Float) {
+        val rows = rows
+        val cols = cols
+        val alpha = color.a * parentAlpha
+        val half = size / 2
         for (y in 0 until rows) {
+            val ringRow = (firstRow + y) % rows
+            val ballY = this.y + scroll + size * y
             for (x in 0 until cols) {
-                actors.get(x, y).setScale(scale)
+                val ball = colors[x, ringRow]
+                val tint = tints[ball]
+                batch.setColor(tint.r, tint.g, tint.b, tint.a * alpha)
+                batch.draw(regions[ball], this.x + size * x, ballY, half, half, size, size, pulse, pulse, 0f)
             }
         }
+        batch.setColor(Color.WHITE)
     }
-
-    private var beatTicks = 0f
 }
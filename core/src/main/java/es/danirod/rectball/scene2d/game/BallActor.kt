@@ -16,8 +16,10 @@
  */
 package es.danirod.rectball.scene2d.game
 
+import com.badlogic.gdx.graphics.Color
 import com.badlogic.gdx.graphics.g2d.TextureAtlas
 import com.badlogic.gdx.scenes.scene2d.ui.Image
+import com.badlogic.gdx.scenes.scene2d.utils.Drawable
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable
 import com.badlogic.gdx.utils.Scaling
 import es.danirod.rectball.model.Ball
@@ -27,9 +29,9 @@ import java.util.Locale
 class BallActor(val ball: Ball, atlas: TextureAtlas) : Image() {
     private val grayDrawable = TextureRegionDrawable(atlas.findRegion("ball_gray"))
 
-    private val colorDrawables = BallColor.values().associateWith {
-        val region = "ball_${it.toString().lowercase(Locale.ROOT)}"
-        TextureRegionDrawable(atlas.findRegion(region))
+    private val colorDrawables: Map<BallColor, Drawable> = BallColor.entries.associateWith {
+        val region = atlas.findRegion("ball_${it.toString().lowercase(Locale.ROOT)}")
+        if (region != null) TextureRegionDrawable(region) else grayDrawable.tint(tintOf(it))
     }
 
     init {
@@ -53,4 +55,18 @@ class BallActor(val ball: Ball, atlas: TextureAtlas) : Image() {
         super.sizeChanged()
         setOrigin(width / 2, height / 2)
     }
+
+    companion object {
+        /** Tints for the colors that don't have a gem in the skin. */
+        private val tints = mapOf(
+            BallColor.PURPLE to Color.valueOf("9b59d0"),
+            BallColor.ORANGE to Color.valueOf("f39c34"),
+            BallColor.CYAN to Color.valueOf("3fd0d4"),
+            BallColor.PINK to Color.valueOf("f06fa8"),
+        )
+
+        /** The tint that makes the gray gem look like a color without a gem. */
+        @JvmStatic
+        fun tintOf(color: BallColor): Color = tints[color] ?: Color.WHITE
+    }
 }
@@ -19,32 +19,43 @@ package es.danirod.rectball.scene2d.game;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.scenes.scene2d.Action;
+import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.actions.Actions;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.utils.Align;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
 
-import es.danirod.rectball.model.Ball;
 import es.danirod.rectball.model.Board;
 import es.danirod.rectball.model.Bounds;
+import es.danirod.rectball.model.Coordinate;
 import es.danirod.rectball.scene2d.input.DragBoardSelectionListener;
 import es.danirod.rectball.scene2d.listeners.BallSelectionListener;
 
-public class BoardActor extends Table {
+public class BoardActor extends Table implements BoardView {
 
     private final BallActor[][] actors;
 
-    private final Set<BallActor> selection = new HashSet<>();
-
     private BallSelectionListener selectionListener;
 
+    private final DragBoardSelectionListener dragListener;
+
+    /** The balls that are highlighted because they are being selected. */
+    private Bounds highlighted;
+
+    /**
+     * The scale, the offset and the color of every ball, indexed by cell.
+     * The timeline animates them and they are copied into the actors.
+     */
+    private final float[] scale, offset, tint;
+
+    /** How far every actor has been moved from where the table put it. */
+    private final float[] appliedOffset;
+
+    private final CellTimeline timeline;
+
     private final Board board;
 
     private Skin skin;
@@ -54,6 +65,15 @@ public class BoardActor extends Table {
         this.skin = skin;
         this.actors = new BallActor[board.getSize()][board.getSize()];
 
+        int cells = board.getSize() * board.getSize();
+        scale = new float[cells];
+        offset = new float[cells];
+        appliedOffset = new float[cells];
+        tint = new float[cells * 4];
+        Arrays.fill(scale, 1f);
+        Arrays.fill(tint, 1f);
+        timeline = new CellTimeline(board.getSize(), scale, offset, tint);
+
         for (int y = board.getSize() - 1; y >= 0; y--) {
             for (int x = 0; x < board.getSize(); x++) {
                 actors[x][y] = new BallActor(board.getBall(x, y), atlas);
@@ -63,9 +83,34 @@ public class BoardActor extends Table {
         }
 
         // Add an input handle to select items in the board.
-        addListener(new DragBoardSelectionListener(this));
+        dragListener = new DragBoardSelectionListener(this);
+        addListener(dragListener);
     }
 
+    @Override
+    public void act(float delta) {
+        super.act(delta);
+        if (timeline.update(delta)) {
+            applyTimeline();
+        }
+    }
+
+    /** Copy the values of the timeline into the actors. */
+    private void applyTimeline() {
+        int size = board.getSize();
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int cell = y * size + x;
+                BallActor actor = actors[x][y];
+                actor.setScale(scale[cell]);
+                actor.setColor(tint[cell * 4], tint[cell * 4 + 1], tint[cell * 4 + 2], tint[cell * 4 + 3]);
+                actor.moveBy(offset[cell] - appliedOffset[cell], 0);
+                appliedOffset[cell] = offset[cell];
+            }
+        }
+    }
+
+    @Override
     public void syncColors() {
         for (BallActor[] row : actors) {
             for (BallActor ball : row) {
@@ -74,6 +119,7 @@ public class BoardActor extends Table {
         }
     }
 
+    @Override
     public Label showPartialScore(int score, Bounds bounds, boolean special, boolean usedHelp) {
         // Get the graphical center of the region.
         BallActor bottomLeftBall = getBall(bounds.minX, bounds.minY);
@@ -84,8 +130,16 @@ public class BoardActor extends Table {
         float maxY = upperRightBall.getY() + upperRightBall.getHeight();
         float centerX = (minX + maxX) / 2;
         float centerY = (minY + maxY) / 2;
+        return partialScoreLabel(skin, score, centerX, centerY, special, usedHelp);
+    }
 
-        // Build the label used to present the score.
+    /**
+     * Build the label that presents the score given for a combination.
+     *
+     * @param centerX the x coordinate of the center of the combination.
+     * @param centerY the y coordinate of the center of the combination.
+     */
+    static Label partialScoreLabel(Skin skin, int score, float centerX, float centerY, boolean special, boolean usedHelp) {
         Label label = new Label("+" + score, skin, "mono");
         label.setFontScale(1.5f);
         label.setSize(140, 70);
@@ -113,6 +167,7 @@ public class BoardActor extends Table {
         return actors[x][y];
     }
 
+    @Override
     public void setColoured(boolean coloured) {
         for (BallActor[] actor : actors) {
             for (BallActor ballActor : actor) {
@@ -121,118 +176,107 @@ public class BoardActor extends Table {
         }
     }
 
-    public void select(Bounds bounds) {
-        selection.clear();
-        selection.addAll(Arrays.asList(
-                actors[bounds.minX][bounds.minY],
-                actors[bounds.minX][bounds.maxY],
-                actors[bounds.maxX][bounds.minY],
-                actors[bounds.maxX][bounds.maxY]
-        ));
-        if (selection.size() == 4) {
-            finishSelection();
-        } else {
-            if (this.selectionListener != null)
-                this.selectionListener.onSelectionFailed(new ArrayList<>(selection));
-            selection.clear();
+    @Override
+    public Coordinate cellAt(float x, float y) {
+        Actor touched = hit(x, y, true);
+        if (touched instanceof BallActor) {
+            BallActor ball = (BallActor) touched;
+            return new Coordinate(ball.getBall().getX(), ball.getBall().getY());
         }
+        return null;
+    }
+
+    @Override
+    public void highlight(Bounds bounds) {
+        if (highlighted != null)
+            tint(highlighted, Color.WHITE);
+        if (bounds != null)
+            tint(bounds, Color.GRAY);
+        highlighted = bounds;
     }
 
-    private List<Ball> getModelBalls() {
-        List<Ball> ballSelection = new ArrayList<>();
-        for(BallActor ball : selection) {
-            ballSelection.add(ball.getBall());
+    private void tint(Bounds bounds, Color color) {
+        for (int x = bounds.minX; x <= bounds.maxX; x++) {
+            for (int y = bounds.minY; y <= bounds.maxY; y++) {
+                timeline.setTint(x, y, color);
+                actors[x][y].setColor(color);
+            }
         }
-        return ballSelection;
     }
 
     /**
      * This method is executed when the selection is complete. It asserts the selection is valid and notifies the game
      * so that it can trigger the proper animations depending on whether it has been successful or not.
      */
-    private void finishSelection() {
-        if (selection.size() != 4) throw new IllegalStateException("Select 4 balls first");
-
-        /* Check whether the selection is valid and provide the valid message to our subscriber. */
+    @Override
+    public void select(Bounds bounds) {
         if (this.selectionListener != null) {
-            List<BallActor> sel = new ArrayList<>(selection);
-            if (board.selection(getModelBalls())) {
-                this.selectionListener.onSelectionSucceeded(sel);
+            if (board.isCombination(bounds)) {
+                this.selectionListener.onSelectionSucceeded(bounds);
             } else {
-                this.selectionListener.onSelectionFailed(sel);
+                this.selectionListener.onSelectionFailed(bounds);
             }
         }
-        selection.clear();
     }
 
     /**
      * Clear the selection.
      */
+    @Override
     public void clearSelection() {
-        List<BallActor> unselectedBalls = new ArrayList<>(selection);
-        if (selectionListener != null) {
-            selectionListener.onSelectionFailed(unselectedBalls);
+        Bounds unselected = dragListener.cancel();
+        if (unselected != null && selectionListener != null) {
+            selectionListener.onSelectionCleared(unselected);
         }
-        selection.clear();
     }
 
+    @Override
     public void setSelectionListener(BallSelectionListener listener) {
         this.selectionListener = listener;
     }
 
-    /**
-     * Resize some balls from this board.
-     *
-     * @param bounds bounding box for the balls that will be resized.
-     * @param scale  the final scale for these balls.
-     * @param time   the time that the animation will last for
-     * @return the action that will animate these balls
-     */
-    private Action resizeBalls(final Bounds bounds, final float scale, final float time) {
-        Action scalingAction = Actions.run(new Runnable() {
-            @Override
-            public void run() {
-                for (int x = bounds.minX; x <= bounds.maxX; x++) {
-                    for (int y = bounds.minY; y <= bounds.maxY; y++) {
-                        BallActor scaledBall = actors[x][y];
-                        scaledBall.addAction(Actions.scaleTo(scale, scale, time));
-                    }
-                }
-            }
-        });
-        return Actions.sequence(scalingAction, Actions.delay(time));
+    @Override
+    public void resetBalls(Bounds bounds) {
+        timeline.scale(bounds, 1f, 0.15f);
+        timeline.tint(bounds, null, Color.WHITE, 0.15f);
     }
 
+    @Override
+    public void dim(Bounds except) {
+        if (except == null)
+            return;
+        Bounds boardBounds = new Bounds(0, 0, board.getSize() - 1, board.getSize() - 1);
+        timeline.tint(boardBounds, except, Color.DARK_GRAY, 0.15f);
+    }
+
+    @Override
+    public void focus(Bounds bounds) {
+        // The entire board is always visible.
+    }
+
+    @Override
     public Action hideBoard() {
         Bounds boardBounds = new Bounds(0, 0, board.getSize() - 1, board.getSize() - 1);
-        return resizeBalls(boardBounds, 0, 0.15f);
+        return timeline.scaleAction(boardBounds, 0, 0.15f);
     }
 
+    @Override
     public Action hideRegion(Bounds bounds) {
-        return resizeBalls(bounds, 0, 0.15f);
+        return timeline.scaleAction(bounds, 0, 0.15f);
     }
 
+    @Override
     public Action showRegion(Bounds bounds) {
-        return resizeBalls(bounds, 1, 0.15f);
+        return timeline.scaleAction(bounds, 1, 0.15f);
     }
 
+    @Override
     public Action shake(float shakiness, int times, float speed) {
         return shake(new Bounds(0, 0, board.getSize() - 1, board.getSize() - 1), shakiness, times, speed);
     }
 
-    public Action shake(final Bounds region, final float shakiness, final int times, final float speed) {
-        Action shakingAction = Actions.run(new Runnable() {
-            @Override
-            public void run() {
-                for (int y = region.minY; y <= region.maxY; y++)
-                    for (int x = region.minX; x <= region.maxX; x++)
-                        actors[x][y].addAction(Actions.repeat(times, Actions.sequence(
-                                                                                             Actions.moveBy(shakiness / 2, 0, speed / 2),
-                                                                                             Actions.moveBy(-shakiness, 0, speed),
-                                                                                             Actions.moveBy(shakiness / 2, 0, speed / 2)
-                        )));
-            }
-        });
-        return Actions.sequence(shakingAction, Actions.delay(times * speed));
+    @Override
+    public Action shake(Bounds region, float shakiness, int times, float speed) {
+        return timeline.shakeAction(region, shakiness, times, speed);
     }
 }
@@ -0,0 +1,369 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.scene2d.game;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.scenes.scene2d.Action;
+import com.badlogic.gdx.scenes.scene2d.ui.Label;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.badlogic.gdx.scenes.scene2d.ui.Widget;
+import com.badlogic.gdx.utils.Array;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import es.danirod.rectball.model.BallColor;
+import es.danirod.rectball.model.BitBoard;
+import es.danirod.rectball.model.Board;
+import es.danirod.rectball.model.Bounds;
+import es.danirod.rectball.model.Coordinate;
+import es.danirod.rectball.scene2d.input.DragBoardSelectionListener;
+import es.danirod.rectball.scene2d.listeners.BallSelectionListener;
+
+/**
+ * Displays a board the same way a BoardActor does, but without an actor
+ * for every ball. The state of the balls is kept in arrays indexed by cell,
+ * and the whole board is drawn in a single loop that writes the vertices of
+ * every ball and hands them to the batch once per texture.
+ *
+ * @since 0.5
+ */
+public class BoardRenderer extends Widget implements BoardView {
+
+    /** The space between two balls, the same one the BoardActor table uses. */
+    private static final float SPACING = 10f;
+
+    /** Floats per ball: four vertices made of x, y, color, u and v. */
+    private static final int BALL_VERTICES = 20;
+
+    /** The index of the gray ball in the regions. */
+    private static final int GRAY = BallColor.values().length;
+
+    private final Board board;
+
+    private final Skin skin;
+
+    private final int size;
+
+    /** The region displayed by every cell, which is a color or GRAY. */
+    private final byte[] regions;
+
+    /** The size of every ball and how far it has been moved to the right. */
+    private final float[] scale, offset;
+
+    /** The color of every ball, four floats per cell. */
+    private final float[] tint;
+
+    /** Where is the bottom left corner of every column and row, and their size. */
+    private final float[] columnX, rowY;
+    private float cellWidth, cellHeight;
+
+    /** The textures of the balls. The skin keeps them in two pages. */
+    private final Array<Texture> textures = new Array<>();
+
+    /** For every color and the gray ball: its texture, its UVs, its size and its tint. */
+    private final int[] regionTextures = new int[GRAY + 1];
+    private final float[] regionUVs = new float[(GRAY + 1) * 4];
+    private final float[] regionSizes = new float[(GRAY + 1) * 2];
+    private final Color[] regionTints = new Color[GRAY + 1];
+
+    /** The vertices of the balls drawn from every texture. */
+    private final float[][] vertices;
+    private final int[] counts;
+
+    /** Animates the arrays of the balls. */
+    private final CellTimeline timeline;
+
+    private Bounds highlighted;
+
+    private BallSelectionListener selectionListener;
+
+    private final DragBoardSelectionListener dragListener;
+
+    private final Color tmp = new Color();
+
+    public BoardRenderer(TextureAtlas atlas, Skin skin, Board board) {
+        this.board = board;
+        this.skin = skin;
+        this.size = board.getSize();
+
+        int cells = size * size;
+        regions = new byte[cells];
+        scale = new float[cells];
+        offset = new float[cells];
+        tint = new float[cells * 4];
+        columnX = new float[size];
+        rowY = new float[size];
+        Arrays.fill(regions, (byte) GRAY);
+        Arrays.fill(scale, 1f);
+        Arrays.fill(tint, 1f);
+        timeline = new CellTimeline(size, scale, offset, tint);
+
+        TextureRegion gray = atlas.findRegion("ball_gray");
+        for (BallColor color : BallColor.values()) {
+            TextureRegion region = atlas.findRegion("ball_" + color.toString().toLowerCase(Locale.ROOT));
+            if (region != null) {
+                addRegion(color.ordinal(), region, Color.WHITE);
+            } else {
+                addRegion(color.ordinal(), gray, BallActor.tintOf(color));
+            }
+        }
+        addRegion(GRAY, gray, Color.WHITE);
+
+        vertices = new float[textures.size][cells * BALL_VERTICES];
+        counts = new int[textures.size];
+
+        dragListener = new DragBoardSelectionListener(this);
+        addListener(dragListener);
+    }
+
+    private void addRegion(int index, TextureRegion region, Color tint) {
+        int texture = textures.indexOf(region.getTexture(), true);
+        if (texture < 0) {
+            textures.add(region.getTexture());
+            texture = textures.size - 1;
+        }
+        regionTextures[index] = texture;
+        regionUVs[index * 4] = region.getU();
+        regionUVs[index * 4 + 1] = region.getV();
+        regionUVs[index * 4 + 2] = region.getU2();
+        regionUVs[index * 4 + 3] = region.getV2();
+        regionSizes[index * 2] = region.getRegionWidth();
+        regionSizes[index * 2 + 1] = region.getRegionHeight();
+        regionTints[index] = tint;
+    }
+
+    /**
+     * Place the cells the way a table of growing cells spaced by SPACING
+     * would, rounding the positions to whole pixels.
+     */
+    @Override
+    public void layout() {
+        cellWidth = Math.round((getWidth() - SPACING * (size - 1)) / size);
+        cellHeight = Math.round((getHeight() - SPACING * (size - 1)) / size);
+        float stepX = (getWidth() + SPACING) / size, stepY = (getHeight() + SPACING) / size;
+        for (int i = 0; i < size; i++) {
+            columnX[i] = Math.round(i * stepX);
+            rowY[i] = Math.round(i * stepY);
+        }
+    }
+
+    @Override
+    public void act(float delta) {
+        super.act(delta);
+        timeline.update(delta);
+    }
+
+    @Override
+    public void draw(Batch batch, float parentAlpha) {
+        validate();
+        for (int texture = 0; texture < textures.size; texture++)
+            counts[texture] = 0;
+
+        // A ball is painted like an Image: the color of the ball times the
+        // tint of its region, with the alpha of the board.
+        float alpha = getColor().a * parentAlpha;
+        for (int cell = 0, cells = size * size; cell < cells; cell++) {
+            float cellScale = scale[cell];
+            if (cellScale == 0)
+                continue;
+            int region = regions[cell];
+            int x = cell % size, y = cell / size;
+
+            // Fit the region inside the cell and scale it around its center.
+            float fit = Math.min(cellWidth / regionSizes[region * 2], cellHeight / regionSizes[region * 2 + 1]);
+            float halfWidth = regionSizes[region * 2] * fit * cellScale / 2;
+            float halfHeight = regionSizes[region * 2 + 1] * fit * cellScale / 2;
+            float centerX = getX() + columnX[x] + cellWidth / 2 + offset[cell];
+            float centerY = getY() + rowY[y] + cellHeight / 2;
+            float x1 = centerX - halfWidth, y1 = centerY - halfHeight;
+            float x2 = centerX + halfWidth, y2 = centerY + halfHeight;
+
+            Color regionTint = regionTints[region];
+            float packed = tmp.set(
+                    tint[cell * 4] * regionTint.r,
+                    tint[cell * 4 + 1] * regionTint.g,
+                    tint[cell * 4 + 2] * regionTint.b,
+                    tint[cell * 4 + 3] * regionTint.a * alpha).toFloatBits();
+            float u = regionUVs[region * 4], v = regionUVs[region * 4 + 1];
+            float u2 = regionUVs[region * 4 + 2], v2 = regionUVs[region * 4 + 3];
+
+            int texture = regionTextures[region];
+            float[] target = vertices[texture];
+            int idx = counts[texture];
+            target[idx++] = x1;
+            target[idx++] = y1;
+            target[idx++] = packed;
+            target[idx++] = u;
+            target[idx++] = v2;
+            target[idx++] = x1;
+            target[idx++] = y2;
+            target[idx++] = packed;
+            target[idx++] = u;
+            target[idx++] = v;
+            target[idx++] = x2;
+            target[idx++] = y2;
+            target[idx++] = packed;
+            target[idx++] = u2;
+            target[idx++] = v;
+            target[idx++] = x2;
+            target[idx++] = y1;
+            target[idx++] = packed;
+            target[idx++] = u2;
+            target[idx++] = v2;
+            counts[texture] = idx;
+        }
+
+        for (int texture = 0; texture < textures.size; texture++) {
+            if (counts[texture] > 0) {
+                batch.draw(textures.get(texture), vertices[texture], 0, counts[texture]);
+            }
+        }
+    }
+
+    @Override
+    public Coordinate cellAt(float x, float y) {
+        int cellX = column(x, getWidth(), columnX, cellWidth);
+        int cellY = column(y, getHeight(), rowY, cellHeight);
+        if (cellX < 0 || cellY < 0)
+            return null;
+        return new Coordinate(cellX, cellY);
+    }
+
+    /** Find the column or row under a coordinate, or -1 if it is a gap. */
+    private int column(float coordinate, float extent, float[] starts, float length) {
+        int index = MathUtils.floor(coordinate * size / (extent + SPACING));
+        if (index < 0 || index >= size)
+            return -1;
+        return coordinate >= starts[index] && coordinate < starts[index] + length ? index : -1;
+    }
+
+    @Override
+    public void syncColors() {
+        BitBoard bits = board.getBitBoard();
+        for (int cell = 0, cells = size * size; cell < cells; cell++) {
+            int color = bits.getColor(cell % size, cell / size);
+            regions[cell] = (byte) (color == BitBoard.EMPTY ? GRAY : color);
+        }
+    }
+
+    @Override
+    public void setColoured(boolean coloured) {
+        if (coloured) {
+            syncColors();
+        } else {
+            Arrays.fill(regions, (byte) GRAY);
+        }
+    }
+
+    @Override
+    public void highlight(Bounds bounds) {
+        if (highlighted != null)
+            setTint(highlighted, Color.WHITE);
+        if (bounds != null)
+            setTint(bounds, Color.GRAY);
+        highlighted = bounds;
+    }
+
+    @Override
+    public void select(Bounds bounds) {
+        if (this.selectionListener != null) {
+            if (board.isCombination(bounds)) {
+                this.selectionListener.onSelectionSucceeded(bounds);
+            } else {
+                this.selectionListener.onSelectionFailed(bounds);
+            }
+        }
+    }
+
+    @Override
+    public void clearSelection() {
+        Bounds unselected = dragListener.cancel();
+        if (unselected != null && selectionListener != null) {
+            selectionListener.onSelectionCleared(unselected);
+        }
+    }
+
+    @Override
+    public void setSelectionListener(BallSelectionListener listener) {
+        this.selectionListener = listener;
+    }
+
+    @Override
+    public void resetBalls(Bounds bounds) {
+        timeline.scale(bounds, 1f, 0.15f);
+        timeline.tint(bounds, null, Color.WHITE, 0.15f);
+    }
+
+    @Override
+    public void dim(Bounds except) {
+        if (except == null)
+            return;
+        timeline.tint(new Bounds(0, 0, size - 1, size - 1), except, Color.DARK_GRAY, 0.15f);
+    }
+
+    @Override
+    public void focus(Bounds bounds) {
+        // The entire board is always visible.
+    }
+
+    @Override
+    public Label showPartialScore(int score, Bounds bounds, boolean special, boolean usedHelp) {
+        validate();
+        float centerX = (columnX[bounds.minX] + columnX[bounds.maxX] + cellWidth) / 2;
+        float centerY = (rowY[bounds.minY] + rowY[bounds.maxY] + cellHeight) / 2;
+        return BoardActor.partialScoreLabel(skin, score, centerX, centerY, special, usedHelp);
+    }
+
+    @Override
+    public Action hideBoard() {
+        return timeline.scaleAction(new Bounds(0, 0, size - 1, size - 1), 0, 0.15f);
+    }
+
+    @Override
+    public Action hideRegion(Bounds bounds) {
+        return timeline.scaleAction(bounds, 0, 0.15f);
+    }
+
+    @Override
+    public Action showRegion(Bounds bounds) {
+        return timeline.scaleAction(bounds, 1, 0.15f);
+    }
+
+    @Override
+    public Action shake(float shakiness, int times, float speed) {
+        return shake(new Bounds(0, 0, size - 1, size - 1), shakiness, times, speed);
+    }
+
+    @Override
+    public Action shake(Bounds region, float shakiness, int times, float speed) {
+        return timeline.shakeAction(region, shakiness, times, speed);
+    }
+
+    private void setTint(Bounds bounds, Color color) {
+        for (int y = bounds.minY; y <= bounds.maxY; y++) {
+            for (int x = bounds.minX; x <= bounds.maxX; x++) {
+                timeline.setTint(x, y, color);
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.scene2d.game;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.scenes.scene2d.Action;
+import com.badlogic.gdx.scenes.scene2d.Touchable;
+import com.badlogic.gdx.scenes.scene2d.ui.Label;
+
+import es.danirod.rectball.model.Bounds;
+import es.danirod.rectball.model.Coordinate;
+import es.danirod.rectball.scene2d.listeners.BallSelectionListener;
+
+/**
+ * An actor that displays a board and lets the player select balls from it.
+ * The game screen only talks to the board through this interface, so that
+ * a board can be displayed by a different actor depending on its size.
+ * The methods that come from Actor are repeated here for that reason.
+ *
+ * @since 0.5
+ */
+public interface BoardView {
+
+    void addAction(Action action);
+
+    void setTouchable(Touchable touchable);
+
+    float getX();
+
+    float getY();
+
+    float getWidth();
+
+    float getHeight();
+
+    Vector2 localToStageCoordinates(Vector2 localCoords);
+
+    void pack();
+
+    void setSelectionListener(BallSelectionListener listener);
+
+    /**
+     * Display the colors that the balls of the board have right now.
+     */
+    void syncColors();
+
+    /**
+     * @param coloured whether to display the colors of the balls or to
+     *                 display every ball in gray.
+     */
+    void setColoured(boolean coloured);
+
+    /**
+     * Find the ball displayed at some point of this actor.
+     *
+     * @param x the x coordinate, local to this actor.
+     * @param y the y coordinate, local to this actor.
+     * @return the position of the ball in the board, or null if there is
+     * no ball there.
+     */
+    Coordinate cellAt(float x, float y);
+
+    /**
+     * Highlight the balls that are being selected.
+     *
+     * @param bounds the balls to highlight, or null to stop highlighting.
+     */
+    void highlight(Bounds bounds);
+
+    /**
+     * Check whether the balls in the corners of the given region make a
+     * combination and tell the selection listener.
+     *
+     * @param bounds the region selected by the player.
+     */
+    void select(Bounds bounds);
+
+    /**
+     * Stop any selection that is being made.
+     */
+    void clearSelection();
+
+    /**
+     * Bring the balls of a region back to their normal size and color,
+     * after they have been selected.
+     *
+     * @param bounds the region to restore.
+     */
+    void resetBalls(Bounds bounds);
+
+    /**
+     * Darken every ball outside of the given region.
+     *
+     * @param except the region to keep lit, or null to keep everything lit.
+     */
+    void dim(Bounds except);
+
+    /**
+     * Make sure that the given region can be seen, for boards that are too
+     * big to be displayed at once.
+     *
+     * @param bounds the region to display.
+     */
+    void focus(Bounds bounds);
+
+    Label showPartialScore(int score, Bounds bounds, boolean special, boolean usedHelp);
+
+    Action hideBoard();
+
+    Action hideRegion(Bounds bounds);
+
+    Action showRegion(Bounds bounds);
+
+    Action shake(float shakiness, int times, float speed);
+
+    Action shake(Bounds region, float shakiness, int times, float speed);
+}
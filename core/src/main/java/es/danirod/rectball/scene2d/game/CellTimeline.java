@@ -0,0 +1,346 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.scene2d.game;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.Interpolation;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.scenes.scene2d.Action;
+import com.badlogic.gdx.scenes.scene2d.actions.TemporalAction;
+import com.badlogic.gdx.utils.Pool;
+
+import java.util.Arrays;
+
+import es.danirod.rectball.model.Bounds;
+
+/**
+ * Animates the balls of a board. Instead of an action for every ball, the
+ * timeline keeps every active tween in fixed-size arrays and advances all
+ * of them in a single loop. A tween changes a property of a cell, which is
+ * its scale, its horizontal offset or its tint, and a cell has at most one
+ * tween per property: starting a new one replaces the old one, so the
+ * arrays never have to grow.
+ *
+ * The values are written into arrays owned by the board, indexed by cell,
+ * where the cell of a ball is y * size + x.
+ *
+ * @since 0.5
+ */
+public class CellTimeline {
+
+    private static final int SCALE = 0, OFFSET = 1, TINT = 2;
+
+    private static final int PROPERTIES = 3;
+
+    private final int size;
+
+    /** The values being animated: one scale and offset and four tints per cell. */
+    private final float[] scale, offset, tint;
+
+    /** The active tweens, packed at the beginning of the arrays. */
+    private int count;
+    private final int[] cells;
+    private final byte[] properties;
+    private final Interpolation[] easings;
+    private final float[] durations, times;
+
+    /**
+     * Where every tween goes from and to, four floats per tween. A shake
+     * doesn't go anywhere: it keeps its amplitude and its speed in to.
+     */
+    private final float[] from, to;
+
+    /** The index of the tween of every property of every cell, or -1. */
+    private final int[] slots;
+
+    private final Pool<TimelineAction> actions = new Pool<TimelineAction>() {
+        @Override
+        protected TimelineAction newObject() {
+            return new TimelineAction();
+        }
+    };
+
+    /**
+     * @param size   the size of the board.
+     * @param scale  the scale of every cell.
+     * @param offset how far every cell has been moved to the right.
+     * @param tint   the color of every cell, as r, g, b and a.
+     */
+    public CellTimeline(int size, float[] scale, float[] offset, float[] tint) {
+        this.size = size;
+        this.scale = scale;
+        this.offset = offset;
+        this.tint = tint;
+
+        int capacity = size * size * PROPERTIES;
+        cells = new int[capacity];
+        properties = new byte[capacity];
+        easings = new Interpolation[capacity];
+        durations = new float[capacity];
+        times = new float[capacity];
+        from = new float[capacity * 4];
+        to = new float[capacity * 4];
+        slots = new int[capacity];
+        Arrays.fill(slots, -1);
+    }
+
+    /**
+     * @return whether there is any tween running.
+     */
+    public boolean isActive() {
+        return count > 0;
+    }
+
+    /**
+     * Advance every tween, and forget the ones that have finished.
+     *
+     * @param delta the time since the last update.
+     * @return whether any value has changed.
+     */
+    public boolean update(float delta) {
+        if (count == 0)
+            return false;
+        for (int i = 0; i < count; ) {
+            times[i] += delta;
+            boolean finished = times[i] >= durations[i];
+            int cell = cells[i];
+            switch (properties[i]) {
+                case SCALE: {
+                    float percent = finished ? 1 : easings[i].apply(times[i] / durations[i]);
+                    scale[cell] = MathUtils.lerp(from[i * 4], to[i * 4], percent);
+                    break;
+                }
+                case TINT: {
+                    float percent = finished ? 1 : easings[i].apply(times[i] / durations[i]);
+                    for (int c = 0; c < 4; c++)
+                        tint[cell * 4 + c] = MathUtils.lerp(from[i * 4 + c], to[i * 4 + c], percent);
+                    break;
+                }
+                case OFFSET: {
+                    // Half a shake to the right, a shake to the left and half
+                    // a shake to the right every two times the speed.
+                    float speed = to[i * 4 + 1];
+                    float time = (times[i] % (speed * 2)) / speed;
+                    float shift = time < 0.5f ? time : time < 1.5f ? 1 - time : time - 2;
+                    offset[cell] = finished ? 0 : shift * to[i * 4];
+                    break;
+                }
+            }
+            if (finished) {
+                remove(i);
+            } else {
+                i++;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Grow or shrink the balls of a region, from the size they have now.
+     */
+    public void scale(Bounds bounds, float scaleTo, float duration) {
+        scale(bounds, scaleTo, duration, Interpolation.linear);
+    }
+
+    /**
+     * Grow or shrink the balls of a region, from the size they have now.
+     *
+     * @param easing how the scale changes over time.
+     */
+    public void scale(Bounds bounds, float scaleTo, float duration, Interpolation easing) {
+        for (int y = bounds.minY; y <= bounds.maxY; y++) {
+            for (int x = bounds.minX; x <= bounds.maxX; x++) {
+                int cell = y * size + x;
+                int i = start(cell, SCALE, duration, easing);
+                from[i * 4] = scale[cell];
+                to[i * 4] = scaleTo;
+            }
+        }
+    }
+
+    /**
+     * Change the color of the balls of a region, from the color they have
+     * now.
+     *
+     * @param except a region whose balls are left untouched, or null.
+     */
+    public void tint(Bounds bounds, Bounds except, Color color, float duration) {
+        tint(bounds, except, color, duration, Interpolation.linear);
+    }
+
+    /**
+     * Change the color of the balls of a region, from the color they have
+     * now.
+     *
+     * @param except a region whose balls are left untouched, or null.
+     * @param easing how the color changes over time.
+     */
+    public void tint(Bounds bounds, Bounds except, Color color, float duration, Interpolation easing) {
+        for (int y = bounds.minY; y <= bounds.maxY; y++) {
+            for (int x = bounds.minX; x <= bounds.maxX; x++) {
+                if (except != null && except.inBounds(x, y))
+                    continue;
+                int cell = y * size + x;
+                int i = start(cell, TINT, duration, easing);
+                System.arraycopy(tint, cell * 4, from, i * 4, 4);
+                to[i * 4] = color.r;
+                to[i * 4 + 1] = color.g;
+                to[i * 4 + 2] = color.b;
+                to[i * 4 + 3] = color.a;
+            }
+        }
+    }
+
+    /**
+     * Change the color of a ball right now, stopping any tint tween.
+     */
+    public void setTint(int x, int y, Color color) {
+        int cell = y * size + x;
+        int slot = slots[cell * PROPERTIES + TINT];
+        if (slot >= 0)
+            remove(slot);
+        tint[cell * 4] = color.r;
+        tint[cell * 4 + 1] = color.g;
+        tint[cell * 4 + 2] = color.b;
+        tint[cell * 4 + 3] = color.a;
+    }
+
+    /**
+     * Move the balls of a region left and right.
+     *
+     * @param shakiness how many pixels the balls are moved to every side.
+     * @param times     how many times the balls are shaken.
+     * @param speed     half of the time that every shake lasts.
+     */
+    public void shake(Bounds bounds, float shakiness, int times, float speed) {
+        for (int y = bounds.minY; y <= bounds.maxY; y++) {
+            for (int x = bounds.minX; x <= bounds.maxX; x++) {
+                int i = start(y * size + x, OFFSET, times * speed * 2, Interpolation.linear);
+                to[i * 4] = shakiness;
+                to[i * 4 + 1] = speed;
+            }
+        }
+    }
+
+    /**
+     * Make an action that scales the balls of a region when it starts and
+     * lasts for as long as the balls take. Actions are pooled, and they go
+     * back to the pool once they have been removed from their actor.
+     */
+    public Action scaleAction(Bounds bounds, float scaleTo, float duration) {
+        return scaleAction(bounds, scaleTo, duration, Interpolation.linear);
+    }
+
+    /**
+     * Make an action that scales the balls of a region when it starts,
+     * using the given easing.
+     */
+    public Action scaleAction(Bounds bounds, float scaleTo, float duration, Interpolation easing) {
+        TimelineAction action = obtain(SCALE, bounds, duration);
+        action.amount = scaleTo;
+        action.easing = easing;
+        return action;
+    }
+
+    /**
+     * Make an action that shakes the balls of a region when it starts. Like
+     * the board always did, it lasts for half of the shaking.
+     */
+    public Action shakeAction(Bounds bounds, float shakiness, int times, float speed) {
+        TimelineAction action = obtain(OFFSET, bounds, times * speed);
+        action.amount = shakiness;
+        action.times = times;
+        action.speed = speed;
+        return action;
+    }
+
+    private TimelineAction obtain(int property, Bounds bounds, float duration) {
+        TimelineAction action = actions.obtain();
+        action.setPool(actions);
+        action.setDuration(duration);
+        action.property = property;
+        action.bounds = bounds;
+        return action;
+    }
+
+    /** Replace the tween of a property of a cell and return its index. */
+    private int start(int cell, int property, float duration, Interpolation easing) {
+        int slot = cell * PROPERTIES + property;
+        int i = slots[slot];
+        if (i < 0) {
+            i = count++;
+            slots[slot] = i;
+            cells[i] = cell;
+            properties[i] = (byte) property;
+        }
+        easings[i] = easing;
+        durations[i] = duration;
+        times[i] = 0;
+        return i;
+    }
+
+    /** Forget a tween, moving the last one into its place. */
+    private void remove(int i) {
+        slots[cells[i] * PROPERTIES + properties[i]] = -1;
+        int last = --count;
+        if (i != last) {
+            cells[i] = cells[last];
+            properties[i] = properties[last];
+            easings[i] = easings[last];
+            durations[i] = durations[last];
+            times[i] = times[last];
+            System.arraycopy(from, last * 4, from, i * 4, 4);
+            System.arraycopy(to, last * 4, to, i * 4, 4);
+            slots[cells[i] * PROPERTIES + properties[i]] = i;
+        }
+        easings[last] = null;
+    }
+
+    /** Starts some tweens when it is run by the actor, then waits for them. */
+    private final class TimelineAction extends TemporalAction {
+
+        int property;
+
+        Bounds bounds;
+
+        float amount, speed;
+
+        int times;
+
+        Interpolation easing;
+
+        @Override
+        protected void begin() {
+            if (property == SCALE) {
+                scale(bounds, amount, getDuration(), easing);
+            } else {
+                shake(bounds, amount, times, speed);
+            }
+        }
+
+        @Override
+        protected void update(float percent) {
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            bounds = null;
+            easing = null;
+        }
+    }
+}
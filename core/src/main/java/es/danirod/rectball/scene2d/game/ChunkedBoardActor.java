@@ -0,0 +1,637 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.scene2d.game;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Interpolation;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.scenes.scene2d.Action;
+import com.badlogic.gdx.scenes.scene2d.actions.Actions;
+import com.badlogic.gdx.scenes.scene2d.actions.TemporalAction;
+import com.badlogic.gdx.scenes.scene2d.ui.Label;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.badlogic.gdx.scenes.scene2d.ui.Widget;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pool;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import es.danirod.rectball.model.BallColor;
+import es.danirod.rectball.model.BitBoard;
+import es.danirod.rectball.model.Board;
+import es.danirod.rectball.model.Bounds;
+import es.danirod.rectball.model.Coordinate;
+import es.danirod.rectball.scene2d.input.BoardCameraListener;
+import es.danirod.rectball.scene2d.input.DragBoardSelectionListener;
+import es.danirod.rectball.scene2d.listeners.BallSelectionListener;
+
+/**
+ * Displays a board too big to fit in the screen, such as the board of a
+ * marathon. The board can be scrolled and zoomed, and it is split in chunks
+ * of balls. Only the chunks that can be seen have an object; the rest of the
+ * board only lives in the model. There are no actors for the balls: every
+ * chunk keeps the vertices of its balls, so drawing a chunk that hasn't
+ * changed is copying its vertices to the batch.
+ *
+ * @since 0.5
+ */
+public class ChunkedBoardActor extends Widget implements BoardView {
+
+    /** How many balls are there in every side of a chunk. */
+    static final int CHUNK_SIZE = 8;
+
+    /** How many balls fit in the actor when the game starts. */
+    private static final int INITIAL_BALLS = 12;
+
+    /** How many balls fit in the actor when it is zoomed in. */
+    private static final int MIN_BALLS = 6;
+
+    /**
+     * How many balls fit in the actor when it is zoomed out. Zooming out
+     * further would make the balls too small to be selected.
+     */
+    private static final int MAX_BALLS = 32;
+
+    /** The size of a ball, the rest of its cell is space between balls. */
+    private static final float BALL_SIZE = 0.86f;
+
+    /** Floats per ball: four vertices made of x, y, color, u and v. */
+    private static final int BALL_VERTICES = 20;
+
+    /** The index of the gray ball in the regions. */
+    private static final int GRAY = BallColor.values().length;
+
+    private final Board board;
+
+    private final Skin skin;
+
+    private final int size;
+
+    private final int chunksPerSide;
+
+    /** The chunks that can be seen, by position, or null for the rest. */
+    private final Chunk[] chunks;
+
+    private final Pool<Chunk> pool = new Pool<Chunk>() {
+        @Override
+        protected Chunk newObject() {
+            return new Chunk();
+        }
+    };
+
+    /** The textures of the balls. The skin keeps them in two pages. */
+    private final Array<Texture> textures = new Array<>();
+
+    /** For every color and the gray ball: its texture, its UVs and its tint. */
+    private final int[] regionTextures = new int[GRAY + 1];
+    private final float[] regionUVs = new float[(GRAY + 1) * 4];
+    private final Color[] regionTints = new Color[GRAY + 1];
+
+    private boolean coloured;
+
+    /** How many pixels is a ball, zero until the actor is given a size. */
+    private float zoom;
+
+    /**
+     * The part of the board that can be seen. The distance in pixels from
+     * the bottom left corner of the board to the bottom left corner of this
+     * actor.
+     */
+    private float scrollX, scrollY;
+
+    private Bounds highlighted;
+
+    /** The balls that are not darkened, and how dark are the rest. */
+    private Bounds dimExcept;
+    private float dimming;
+
+    /** The color and the darkness the vertices were made with. */
+    private float builtColor, builtDimming;
+
+    private BallSelectionListener selectionListener;
+
+    private final DragBoardSelectionListener dragListener;
+
+    private final Matrix4 transform = new Matrix4();
+    private final Matrix4 previousTransform = new Matrix4();
+    private final Color tmp = new Color();
+
+    public ChunkedBoardActor(TextureAtlas atlas, Skin skin, Board board) {
+        this.board = board;
+        this.skin = skin;
+        this.size = board.getSize();
+        this.chunksPerSide = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        this.chunks = new Chunk[chunksPerSide * chunksPerSide];
+
+        TextureRegion gray = atlas.findRegion("ball_gray");
+        for (BallColor color : BallColor.values()) {
+            TextureRegion region = atlas.findRegion("ball_" + color.toString().toLowerCase(Locale.ROOT));
+            if (region != null) {
+                addRegion(color.ordinal(), region, Color.WHITE);
+            } else {
+                addRegion(color.ordinal(), gray, BallActor.tintOf(color));
+            }
+        }
+        addRegion(GRAY, gray, Color.WHITE);
+
+        dragListener = new DragBoardSelectionListener(this);
+        addListener(dragListener);
+        addListener(new BoardCameraListener(this));
+    }
+
+    private void addRegion(int index, TextureRegion region, Color tint) {
+        int texture = textures.indexOf(region.getTexture(), true);
+        if (texture < 0) {
+            textures.add(region.getTexture());
+            texture = textures.size - 1;
+        }
+        regionTextures[index] = texture;
+        regionUVs[index * 4] = region.getU();
+        regionUVs[index * 4 + 1] = region.getV();
+        regionUVs[index * 4 + 2] = region.getU2();
+        regionUVs[index * 4 + 3] = region.getV2();
+        regionTints[index] = tint;
+    }
+
+    @Override
+    protected void sizeChanged() {
+        super.sizeChanged();
+        float extent = Math.min(getWidth(), getHeight());
+        if (extent <= 0)
+            return;
+        if (zoom == 0) {
+            // Start at the center of the board.
+            zoom = extent / Math.min(INITIAL_BALLS, size);
+            scrollX = (size * zoom - getWidth()) / 2;
+            scrollY = (size * zoom - getHeight()) / 2;
+        }
+        zoom = MathUtils.clamp(zoom, getMinZoom(), getMaxZoom());
+        scrollX = clampScroll(scrollX, zoom, getWidth());
+        scrollY = clampScroll(scrollY, zoom, getHeight());
+    }
+
+    private float getMinZoom() {
+        return Math.min(getWidth(), getHeight()) / Math.min(MAX_BALLS, size);
+    }
+
+    private float getMaxZoom() {
+        return Math.min(getWidth(), getHeight()) / Math.min(MIN_BALLS, size);
+    }
+
+    /** Keep the board inside the actor, centered if it is smaller. */
+    private float clampScroll(float scroll, float zoom, float extent) {
+        float length = size * zoom;
+        if (length <= extent)
+            return (length - extent) / 2;
+        return MathUtils.clamp(scroll, 0, length - extent);
+    }
+
+    /**
+     * Scroll the board, as if it was dragged.
+     *
+     * @param dx how many pixels to move the board to the right.
+     * @param dy how many pixels to move the board up.
+     */
+    public void pan(float dx, float dy) {
+        if (zoom == 0)
+            return;
+        scrollX = clampScroll(scrollX - dx, zoom, getWidth());
+        scrollY = clampScroll(scrollY - dy, zoom, getHeight());
+    }
+
+    /**
+     * Zoom the board, keeping the same part of the board under a point.
+     *
+     * @param factor how bigger the balls should be.
+     * @param x      the x coordinate of the point, local to this actor.
+     * @param y      the y coordinate of the point, local to this actor.
+     */
+    public void zoomAround(float factor, float x, float y) {
+        if (zoom == 0)
+            return;
+        float boardX = (x + scrollX) / zoom, boardY = (y + scrollY) / zoom;
+        zoom = MathUtils.clamp(zoom * factor, getMinZoom(), getMaxZoom());
+        scrollX = clampScroll(boardX * zoom - x, zoom, getWidth());
+        scrollY = clampScroll(boardY * zoom - y, zoom, getHeight());
+    }
+
+    @Override
+    public void focus(Bounds bounds) {
+        if (zoom == 0)
+            return;
+
+        // Zoom out if the region doesn't fit, leaving a ball around it.
+        int balls = Math.max(bounds.cols(), bounds.rows()) + 2;
+        float targetZoom = Math.max(getMinZoom(), Math.min(zoom, Math.min(getWidth(), getHeight()) / balls));
+        boolean visible = bounds.minX * zoom >= scrollX && (bounds.maxX + 1) * zoom <= scrollX + getWidth()
+                && bounds.minY * zoom >= scrollY && (bounds.maxY + 1) * zoom <= scrollY + getHeight();
+        if (visible && targetZoom == zoom)
+            return;
+
+        float targetX = (bounds.minX + bounds.maxX + 1) * targetZoom / 2 - getWidth() / 2;
+        float targetY = (bounds.minY + bounds.maxY + 1) * targetZoom / 2 - getHeight() / 2;
+        addAction(new CameraAction(targetZoom,
+                clampScroll(targetX, targetZoom, getWidth()),
+                clampScroll(targetY, targetZoom, getHeight())));
+    }
+
+    @Override
+    public Coordinate cellAt(float x, float y) {
+        if (zoom == 0 || x < 0 || y < 0 || x >= getWidth() || y >= getHeight())
+            return null;
+        int cellX = MathUtils.floor((x + scrollX) / zoom);
+        int cellY = MathUtils.floor((y + scrollY) / zoom);
+        if (cellX < 0 || cellY < 0 || cellX >= size || cellY >= size)
+            return null;
+        return new Coordinate(cellX, cellY);
+    }
+
+    @Override
+    public void draw(Batch batch, float parentAlpha) {
+        validate();
+        if (zoom == 0)
+            return;
+        updateChunks();
+
+        // The color of the actor is in the vertices.
+        Color color = getColor();
+        float colorBits = tmp.set(color.r, color.g, color.b, color.a * parentAlpha).toFloatBits();
+        if (colorBits != builtColor || dimming != builtDimming) {
+            invalidateChunks();
+            builtColor = colorBits;
+            builtDimming = dimming;
+        }
+        for (Chunk chunk : chunks) {
+            if (chunk != null && chunk.dirty) {
+                build(chunk);
+            }
+        }
+
+        if (!clipBegin())
+            return;
+        previousTransform.set(batch.getTransformMatrix());
+        transform.set(previousTransform)
+                .translate(getX() - scrollX, getY() - scrollY, 0)
+                .scale(zoom, zoom, 1);
+        batch.setTransformMatrix(transform);
+        for (int texture = 0; texture < textures.size; texture++) {
+            for (Chunk chunk : chunks) {
+                if (chunk != null && chunk.counts[texture] > 0) {
+                    batch.draw(textures.get(texture), chunk.vertices[texture], 0, chunk.counts[texture]);
+                }
+            }
+        }
+        batch.setTransformMatrix(previousTransform);
+        clipEnd();
+    }
+
+    /** Make the chunks that can be seen and drop the rest. */
+    private void updateChunks() {
+        int minX = chunkAt(scrollX), maxX = chunkAt(scrollX + getWidth());
+        int minY = chunkAt(scrollY), maxY = chunkAt(scrollY + getHeight());
+        for (int y = 0; y < chunksPerSide; y++) {
+            for (int x = 0; x < chunksPerSide; x++) {
+                int index = y * chunksPerSide + x;
+                boolean visible = x >= minX && x <= maxX && y >= minY && y <= maxY;
+                if (visible && chunks[index] == null) {
+                    Chunk chunk = pool.obtain();
+                    chunk.minX = x * CHUNK_SIZE;
+                    chunk.minY = y * CHUNK_SIZE;
+                    chunks[index] = chunk;
+                } else if (!visible && chunks[index] != null) {
+                    pool.free(chunks[index]);
+                    chunks[index] = null;
+                }
+            }
+        }
+    }
+
+    private int chunkAt(float scroll) {
+        return MathUtils.clamp(MathUtils.floor(scroll / zoom) / CHUNK_SIZE, 0, chunksPerSide - 1);
+    }
+
+    private void invalidateChunks() {
+        for (Chunk chunk : chunks) {
+            if (chunk != null) {
+                chunk.dirty = true;
+            }
+        }
+    }
+
+    /** Make the vertices of the balls of a chunk, in balls instead of pixels. */
+    private void build(Chunk chunk) {
+        BitBoard bits = board.getBitBoard();
+        float darkness = 1 - dimming * (1 - Color.DARK_GRAY.r);
+        for (int texture = 0; texture < textures.size; texture++)
+            chunk.counts[texture] = 0;
+
+        for (int i = 0; i < CHUNK_SIZE * CHUNK_SIZE; i++) {
+            int x = chunk.minX + i % CHUNK_SIZE, y = chunk.minY + i / CHUNK_SIZE;
+            if (x >= size || y >= size || chunk.scale[i] <= 0)
+                continue;
+            int color = bits.getColor(x, y);
+            if (color == BitBoard.EMPTY)
+                continue;
+            int region = coloured ? color : GRAY;
+
+            Color.abgr8888ToColor(tmp, builtColor);
+            tmp.mul(regionTints[region]);
+            if (highlighted != null && highlighted.inBounds(x, y))
+                tmp.mul(Color.GRAY);
+            if (dimExcept != null && !dimExcept.inBounds(x, y))
+                tmp.mul(darkness, darkness, darkness, 1f);
+            float packed = tmp.toFloatBits();
+
+            float half = BALL_SIZE * chunk.scale[i] / 2;
+            float centerX = x + 0.5f + chunk.offset[i], centerY = y + 0.5f;
+            float x1 = centerX - half, y1 = centerY - half, x2 = centerX + half, y2 = centerY + half;
+            float u = regionUVs[region * 4], v = regionUVs[region * 4 + 1];
+            float u2 = regionUVs[region * 4 + 2], v2 = regionUVs[region * 4 + 3];
+
+            int texture = regionTextures[region];
+            float[] vertices = chunk.vertices[texture];
+            int idx = chunk.counts[texture];
+            vertices[idx++] = x1;
+            vertices[idx++] = y1;
+            vertices[idx++] = packed;
+            vertices[idx++] = u;
+            vertices[idx++] = v2;
+            vertices[idx++] = x1;
+            vertices[idx++] = y2;
+            vertices[idx++] = packed;
+            vertices[idx++] = u;
+            vertices[idx++] = v;
+            vertices[idx++] = x2;
+            vertices[idx++] = y2;
+            vertices[idx++] = packed;
+            vertices[idx++] = u2;
+            vertices[idx++] = v;
+            vertices[idx++] = x2;
+            vertices[idx++] = y1;
+            vertices[idx++] = packed;
+            vertices[idx++] = u2;
+            vertices[idx++] = v2;
+            chunk.counts[texture] = idx;
+        }
+        chunk.dirty = false;
+    }
+
+    @Override
+    public void syncColors() {
+        invalidateChunks();
+    }
+
+    @Override
+    public void setColoured(boolean coloured) {
+        this.coloured = coloured;
+        invalidateChunks();
+    }
+
+    @Override
+    public void highlight(Bounds bounds) {
+        if (bounds == null ? highlighted == null : bounds.equals(highlighted))
+            return;
+        highlighted = bounds;
+        invalidateChunks();
+    }
+
+    @Override
+    public void select(Bounds bounds) {
+        if (this.selectionListener != null) {
+            if (board.isCombination(bounds)) {
+                this.selectionListener.onSelectionSucceeded(bounds);
+            } else {
+                this.selectionListener.onSelectionFailed(bounds);
+            }
+        }
+    }
+
+    @Override
+    public void clearSelection() {
+        Bounds unselected = dragListener.cancel();
+        if (unselected != null && selectionListener != null) {
+            selectionListener.onSelectionCleared(unselected);
+        }
+    }
+
+    @Override
+    public void setSelectionListener(BallSelectionListener listener) {
+        this.selectionListener = listener;
+    }
+
+    @Override
+    public void resetBalls(Bounds bounds) {
+        setScale(bounds, 1f);
+    }
+
+    @Override
+    public void dim(Bounds except) {
+        if (except == null)
+            return;
+        dimExcept = except;
+        addAction(new TemporalAction(0.15f) {
+            @Override
+            protected void update(float percent) {
+                dimming = percent;
+            }
+        });
+    }
+
+    @Override
+    public Label showPartialScore(int score, Bounds bounds, boolean special, boolean usedHelp) {
+        float centerX = (bounds.minX + bounds.maxX + 1) * zoom / 2 - scrollX;
+        float centerY = (bounds.minY + bounds.maxY + 1) * zoom / 2 - scrollY;
+        return BoardActor.partialScoreLabel(skin, score, centerX, centerY, special, usedHelp);
+    }
+
+    @Override
+    public Action hideBoard() {
+        return new ScaleAction(new Bounds(0, 0, size - 1, size - 1), 0, 0.15f);
+    }
+
+    @Override
+    public Action hideRegion(Bounds bounds) {
+        return new ScaleAction(bounds, 0, 0.15f);
+    }
+
+    @Override
+    public Action showRegion(Bounds bounds) {
+        return new ScaleAction(bounds, 1, 0.15f);
+    }
+
+    @Override
+    public Action shake(float shakiness, int times, float speed) {
+        return shake(new Bounds(0, 0, size - 1, size - 1), shakiness, times, speed);
+    }
+
+    @Override
+    public Action shake(final Bounds region, final float shakiness, final int times, final float speed) {
+        // Like BoardActor, wait for half of the shaking.
+        Action shakingAction = Actions.run(new Runnable() {
+            @Override
+            public void run() {
+                addAction(new ShakeAction(region, shakiness, times, speed));
+            }
+        });
+        return Actions.sequence(shakingAction, Actions.delay(times * speed));
+    }
+
+    /** Change the size of the balls of a region in the chunks that can be seen. */
+    private void setScale(Bounds bounds, float scale) {
+        for (Chunk chunk : chunks) {
+            if (chunk != null && chunk.overlaps(bounds)) {
+                for (int i = 0; i < CHUNK_SIZE * CHUNK_SIZE; i++) {
+                    if (bounds.inBounds(chunk.minX + i % CHUNK_SIZE, chunk.minY + i / CHUNK_SIZE)) {
+                        chunk.scale[i] = scale;
+                    }
+                }
+                chunk.dirty = true;
+            }
+        }
+    }
+
+    /** Move the balls of a region in the chunks that can be seen. */
+    private void setOffset(Bounds bounds, float offset) {
+        for (Chunk chunk : chunks) {
+            if (chunk != null && chunk.overlaps(bounds)) {
+                for (int i = 0; i < CHUNK_SIZE * CHUNK_SIZE; i++) {
+                    if (bounds.inBounds(chunk.minX + i % CHUNK_SIZE, chunk.minY + i / CHUNK_SIZE)) {
+                        chunk.offset[i] = offset;
+                    }
+                }
+                chunk.dirty = true;
+            }
+        }
+    }
+
+    /** A square of balls of the board that can be seen. */
+    private final class Chunk implements Pool.Poolable {
+
+        int minX, minY;
+
+        /** The size and the horizontal offset of every ball, in balls. */
+        final float[] scale = new float[CHUNK_SIZE * CHUNK_SIZE];
+        final float[] offset = new float[CHUNK_SIZE * CHUNK_SIZE];
+
+        /** The vertices of the balls drawn from every texture. */
+        final float[][] vertices = new float[textures.size][CHUNK_SIZE * CHUNK_SIZE * BALL_VERTICES];
+        final int[] counts = new int[textures.size];
+
+        boolean dirty;
+
+        Chunk() {
+            reset();
+        }
+
+        boolean overlaps(Bounds bounds) {
+            return bounds.maxX >= minX && bounds.minX < minX + CHUNK_SIZE
+                    && bounds.maxY >= minY && bounds.minY < minY + CHUNK_SIZE;
+        }
+
+        @Override
+        public void reset() {
+            Arrays.fill(scale, 1f);
+            Arrays.fill(offset, 0f);
+            dirty = true;
+        }
+    }
+
+    /** Grow or shrink the balls of a region. */
+    private final class ScaleAction extends TemporalAction {
+
+        private final Bounds bounds;
+
+        private final float to;
+
+        ScaleAction(Bounds bounds, float to, float duration) {
+            super(duration);
+            this.bounds = bounds;
+            this.to = to;
+        }
+
+        @Override
+        protected void update(float percent) {
+            setScale(bounds, MathUtils.lerp(1 - to, to, percent));
+        }
+    }
+
+    /**
+     * Move the balls of a region left and right, the same way the balls of
+     * a BoardActor are moved: half a shake to the right, a shake to the
+     * left and half a shake to the right every two times the speed.
+     */
+    private final class ShakeAction extends TemporalAction {
+
+        private final Bounds bounds;
+
+        private final float shakiness, speed;
+
+        ShakeAction(Bounds bounds, float shakiness, int times, float speed) {
+            super(times * speed * 2);
+            this.bounds = bounds;
+            this.shakiness = shakiness;
+            this.speed = speed;
+        }
+
+        @Override
+        protected void update(float percent) {
+            float time = (getTime() % (speed * 2)) / speed;
+            float offset = time < 0.5f ? time : time < 1.5f ? 1 - time : time - 2;
+            setOffset(bounds, offset * shakiness / zoom);
+        }
+
+        @Override
+        protected void end() {
+            setOffset(bounds, 0);
+        }
+    }
+
+    /** Scroll and zoom to a given place. */
+    private final class CameraAction extends TemporalAction {
+
+        private final float toZoom, toX, toY;
+
+        private float fromZoom, fromX, fromY;
+
+        CameraAction(float toZoom, float toX, float toY) {
+            super(0.25f, Interpolation.smooth);
+            this.toZoom = toZoom;
+            this.toX = toX;
+            this.toY = toY;
+        }
+
+        @Override
+        protected void begin() {
+            fromZoom = zoom;
+            fromX = scrollX;
+            fromY = scrollY;
+        }
+
+        @Override
+        protected void update(float percent) {
+            zoom = MathUtils.lerp(fromZoom, toZoom, percent);
+            scrollX = MathUtils.lerp(fromX, toX, percent);
+            scrollY = MathUtils.lerp(fromY, toY, percent);
+        }
+    }
+}
@@ -21,6 +21,7 @@ import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import es.danirod.rectball.model.GameTimer;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -48,33 +49,17 @@ public class TimerActor extends Actor {
      */
     private static final float WARNING_TRIGGER = 0.2f;
     private final List<TimerCallback> subscribers = new ArrayList<>();
-    /**
-     * The maximum number of seconds this timer can have. When filled with
-     * seconds, the value of the timer will always be clamped so that it's
-     * never bigger than this. Additionally this is used as the maximum value
-     * when calculating the percentage of the timer.
-     */
-    private final float maxSeconds;
     /**
      * The skin used by the game.
      */
     private final Skin skin;
     /**
-     * The countdown value for the timer. The value of this countdown
-     * represents how many seconds are there remaining until game over. The
-     * value of this countdown will decrement every second and sometimes
-     * could increment.
-     */
-    private float seconds;
-
-    /**
-     * Whether the time is running or not. This variable could be set to false
-     * to make the countdown stop, for instance to make a pause and resume
-     * system.
+     * The rules of the countdown. The value of this countdown represents
+     * how many seconds are there remaining until game over. The value of
+     * this countdown will decrement every second and sometimes could
+     * increment, but never over the maximum number of seconds.
      */
-    private boolean running = true;
-
-    private float remainingTime, remainingTimeSpeed;
+    private final GameTimer timer;
 
     /**
      * Set up a new timer.
@@ -82,8 +67,7 @@ public class TimerActor extends Actor {
      * @param seconds the maximum seconds for this timer.
      */
     public TimerActor(int seconds, Skin skin) {
-        this.seconds = seconds;
-        this.maxSeconds = seconds;
+        this.timer = new GameTimer(seconds);
         this.skin = skin;
     }
 
@@ -104,7 +88,7 @@ public class TimerActor extends Actor {
      * @return remaining value of the timer.
      */
     public float getSeconds() {
-        return seconds;
+        return timer.getSeconds();
     }
 
     /**
@@ -115,10 +99,7 @@ public class TimerActor extends Actor {
      * @param seconds new value of seconds for this timer.
      */
     public void setSeconds(float seconds) {
-        this.seconds = seconds;
-        if (seconds > maxSeconds) {
-            this.seconds = maxSeconds;
-        }
+        timer.setSeconds(seconds);
     }
 
     /**
@@ -127,7 +108,7 @@ public class TimerActor extends Actor {
      * @return is the timer running or not
      */
     public boolean isRunning() {
-        return running;
+        return timer.isRunning();
     }
 
     /**
@@ -138,25 +119,12 @@ public class TimerActor extends Actor {
      * @param running whether the timer should be running or not
      */
     public void setRunning(boolean running) {
-        this.running = running;
+        timer.setRunning(running);
     }
 
     @Override
     public void act(float delta) {
-        if (running) {
-            seconds -= delta;
-        }
-
-        if (remainingTime > 0) {
-            float givenTime = Math.min(remainingTime, remainingTimeSpeed);
-            remainingTime -= givenTime;
-            seconds += givenTime;
-        }
-
-        // Clamp the score both on max seconds and on min seconds.
-        seconds = Math.min(seconds, maxSeconds);
-        if (seconds < 0) {
-            seconds = 0;
+        if (timer.tick(delta)) {
             for (TimerCallback subscriber : subscribers) {
                 subscriber.onTimeOut();
             }
@@ -174,7 +142,7 @@ public class TimerActor extends Actor {
         batch.draw(progress, getX(), getY(), getWidth(), getHeight());
 
         // Calculate the remaining percentage of time.
-        float percentage = seconds / maxSeconds;
+        float percentage = timer.getSeconds() / timer.getMaxSeconds();
         float remainingSize = getWidth() * percentage;
 
         // Render the remaining time using the appropriate color.
@@ -189,8 +157,7 @@ public class TimerActor extends Actor {
     }
 
     public void giveTime(float time, float speed) {
-        remainingTime += time;
-        remainingTimeSpeed = speed;
+        timer.giveTime(time, speed);
     }
 
     /**
@@ -0,0 +1,91 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.scene2d.input
+
+import com.badlogic.gdx.Input
+import com.badlogic.gdx.math.Vector2
+import com.badlogic.gdx.scenes.scene2d.Actor
+import com.badlogic.gdx.scenes.scene2d.InputEvent
+import com.badlogic.gdx.scenes.scene2d.InputListener
+import es.danirod.rectball.scene2d.game.ChunkedBoardActor
+import kotlin.math.pow
+
+/**
+ * Scrolls and zooms a board too big to fit in the screen. Dragging a finger
+ * still selects balls, so the board is scrolled dragging two fingers and it
+ * is zoomed pinching them. With a mouse, the board is scrolled dragging any
+ * button but the left one, and it is zoomed with the wheel.
+ */
+class BoardCameraListener(val board: ChunkedBoardActor) : InputListener() {
+
+    private val positions = arrayOf(Vector2(), Vector2())
+
+    private val pressed = booleanArrayOf(false, false)
+
+    private var panning: Boolean = false
+
+    override fun touchDown(event: InputEvent?, x: Float, y: Float, pointer: Int, button: Int): Boolean {
+        if (pointer > 1) return false
+        positions[pointer].set(x, y)
+        pressed[pointer] = true
+        if (pointer == 0 && button != Input.Buttons.LEFT) {
+            panning = true
+        } else if (pointer == 1) {
+            // The second finger stops the selection made by the first one.
+            board.clearSelection()
+        }
+        return true
+    }
+
+    override fun touchDragged(event: InputEvent?, x: Float, y: Float, pointer: Int) {
+        if (pointer > 1) return
+        val moved = positions[pointer]
+        if (pressed[0] && pressed[1]) {
+            val other = positions[1 - pointer]
+            val distance = other.dst(moved)
+            val newDistance = other.dst(x, y)
+            board.pan((x - moved.x) / 2, (y - moved.y) / 2)
+            if (distance > 0 && newDistance > 0) {
+                board.zoomAround(newDistance / distance, (other.x + x) / 2, (other.y + y) / 2)
+            }
+        } else if (panning) {
+            board.pan(x - moved.x, y - moved.y)
+        }
+        moved.set(x, y)
+    }
+
+    override fun touchUp(event: InputEvent?, x: Float, y: Float, pointer: Int, button: Int) {
+        if (pointer > 1) return
+        pressed[pointer] = false
+        if (pointer == 0) panning = false
+    }
+
+    override fun scrolled(event: InputEvent?, x: Float, y: Float, amountX: Float, amountY: Float): Boolean {
+        board.zoomAround(ZOOM_STEP.pow(-amountY), x, y)
+        return true
+    }
+
+    override fun enter(event: InputEvent?, x: Float, y: Float, pointer: Int, fromActor: Actor?) {
+        // The wheel only reaches the actor that has the scroll focus.
+        if (pointer == -1) event?.stage?.scrollFocus = board
+    }
+
+    companion object {
+        /** How much does the board zoom for every step of the wheel. */
+        private const val ZOOM_STEP = 1.15f
+    }
+}
@@ -16,19 +16,19 @@
  */
 package es.danirod.rectball.scene2d.input
 
-import com.badlogic.gdx.graphics.Color
 import com.badlogic.gdx.scenes.scene2d.InputEvent
 import com.badlogic.gdx.scenes.scene2d.InputListener
 import es.danirod.rectball.model.Bounds
 import es.danirod.rectball.model.Coordinate
-import es.danirod.rectball.scene2d.game.BallActor
-import es.danirod.rectball.scene2d.game.BoardActor
-import java.lang.Math.min
+import es.danirod.rectball.scene2d.game.BoardView
 
-class DragBoardSelectionListener(val board: BoardActor) : InputListener() {
+class DragBoardSelectionListener(val board: BoardView) : InputListener() {
 
     private var active: Boolean = false
 
+    /** Set when the selection is cancelled, until the next ball is touched. */
+    private var cancelled: Boolean = false
+
     private var startX: Int = 0
 
     private var startY: Int = 0
@@ -42,10 +42,11 @@ class DragBoardSelectionListener(val board: BoardActor) : InputListener() {
     private var maxY: Int = 0
 
     override fun touchDown(event: InputEvent?, x: Float, y: Float, pointer: Int, button: Int): Boolean {
-        val touched = board.hit(x, y, true)
-        return if (pointer == 0 && button == 0 && touched is BallActor) {
-            startX = touched.ball.x
-            startY = touched.ball.y
+        val touched = board.cellAt(x, y)
+        return if (pointer == 0 && button == 0 && touched != null) {
+            startX = touched.x
+            startY = touched.y
+            cancelled = false
             true
         } else {
             super.touchDown(event, x, y, pointer, button)
@@ -53,43 +54,48 @@ class DragBoardSelectionListener(val board: BoardActor) : InputListener() {
     }
 
     override fun touchDragged(event: InputEvent?, x: Float, y: Float, pointer: Int) {
-        val touched = board.hit(x, y, true)
-        if (touched is BallActor) {
-            if (active) {
-                tintSelection(Color.WHITE)
-            }
+        if (cancelled) return
+        val touched = board.cellAt(x, y)
+        if (touched != null) {
             computeBounds(touched)
-            tintSelection(Color.GRAY)
+            board.highlight(Bounds(minX, minY, maxX, maxY))
         }
     }
 
     override fun touchUp(event: InputEvent?, x: Float, y: Float, pointer: Int, button: Int) {
-        val touched = board.hit(x, y, true)
-        if (touched is BallActor) {
+        if (cancelled) return
+        val touched = board.cellAt(x, y)
+        if (touched != null) {
             computeBounds(touched)
         }
         if (active) {
-            tintSelection(Color.WHITE)
+            board.highlight(null)
             board.select(Bounds(minX, minY, maxX, maxY))
             active = false
         }
     }
 
-    private fun computeBounds(touched: BallActor) {
-        val endX: Int = touched.ball.x
-        val endY: Int = touched.ball.y
+    /**
+     * Stop the selection that is being made, if any. The balls touched
+     * until the next touch down are ignored.
+     *
+     * @return the bounds that were being selected, or null.
+     */
+    fun cancel(): Bounds? {
+        cancelled = true
+        if (!active) return null
+        active = false
+        board.highlight(null)
+        return Bounds(minX, minY, maxX, maxY)
+    }
+
+    private fun computeBounds(touched: Coordinate) {
+        val endX: Int = touched.x
+        val endY: Int = touched.y
         minX = startX.coerceAtMost(endX)
         maxX = startX.coerceAtLeast(endX)
         minY = startY.coerceAtMost(endY)
         maxY = startY.coerceAtLeast(endY)
         active = true
     }
-
-    private fun tintSelection(color: Color) {
-        for (x in minX..maxX) {
-            for (y in minY..maxY) {
-                board.getBall(x, y).color = color
-            }
-        }
-    }
 }
@@ -16,9 +16,7 @@
  */
 package es.danirod.rectball.scene2d.listeners;
 
-import es.danirod.rectball.scene2d.game.BallActor;
-
-import java.util.List;
+import es.danirod.rectball.model.Bounds;
 
 /**
  * Interface used to trigger events related to ball selection and board.
@@ -32,25 +30,25 @@ public interface BallSelectionListener {
      * already be checked to be valid. All the selected balls form a rectangle
      * whose four corners are made of the same color.
      *
-     * @param selection balls that form this selection.
+     * @param selection the rectangle made by the selected balls.
      */
-    void onSelectionSucceeded(List<BallActor> selection);
+    void onSelectionSucceeded(Bounds selection);
 
     /**
      * This event is triggered when a selection is made and the selection is
      * checked not to be valid. Any of the conditions required to be a valid
      * selection is not happening.
      *
-     * @param selection balls that don't form this selection.
+     * @param selection the rectangle made by the selected balls.
      */
-    void onSelectionFailed(List<BallActor> selection);
+    void onSelectionFailed(Bounds selection);
 
     /**
      * This event is triggered when the board is forced to unselect every ball.
      * This happens, for instance, when the game is over, so that no selected
      * balls remain on the screen while the animations start.
      *
-     * @param selection the list of balls that has been unselected.
+     * @param selection the rectangle that was being selected.
      */
-    void onSelectionCleared(List<BallActor> selection);
+    void onSelectionCleared(Bounds selection);
 }
@@ -16,20 +16,20 @@
  */
 package es.danirod.rectball.scene2d.listeners
 
-import es.danirod.rectball.scene2d.game.BallActor
+import es.danirod.rectball.model.Bounds
 
 open class DefaultBallSelectionListener() : BallSelectionListener {
 
 
-    override fun onSelectionSucceeded(selection: MutableList<BallActor>?) {
+    override fun onSelectionSucceeded(selection: Bounds?) {
 
     }
 
-    override fun onSelectionFailed(selection: MutableList<BallActor>?) {
+    override fun onSelectionFailed(selection: Bounds?) {
 
     }
 
-    override fun onSelectionCleared(selection: MutableList<BallActor>?) {
+    override fun onSelectionCleared(selection: Bounds?) {
 
     }
 }
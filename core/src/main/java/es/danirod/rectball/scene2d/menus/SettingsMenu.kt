@@ -80,6 +80,18 @@ class SettingsMenu(private val game: RectballGame) : VerticalGroup() {
         }
     }
 
+    private val batchedBoardSwitch = game.locale["settings.batched_board"].let { label ->
+        SwitchActor(label, game.appSkin).apply {
+            isChecked = game.settings.batchedBoard
+            addListener(object : ChangeListener() {
+                override fun changed(event: ChangeEvent?, actor: Actor?) {
+                    game.settings.batchedBoard = isChecked
+                    game.player.playSound(SoundCode.SELECT)
+                }
+            })
+        }
+    }
+
     private val doTutorialButton = game.locale["settings.play_tutorial"].let { label ->
         TextButton(label, game.appSkin).apply {
             pad(10f)
@@ -173,6 +185,7 @@ class SettingsMenu(private val game: RectballGame) : VerticalGroup() {
             addActor(keepScreenOn)
         }
         addActor(colorSwitch)
+        addActor(batchedBoardSwitch)
         addActor(doTutorialButton)
         if (game.context.gameServices.supported) {
             addActor(gameServicesButton())
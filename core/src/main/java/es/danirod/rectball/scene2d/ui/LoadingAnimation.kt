@@ -25,7 +25,7 @@ import es.danirod.rectball.scene2d.game.BallActor
 
 class LoadingAnimation(atlas: TextureAtlas) : Table() {
 
-    val balls = BallColor.values().map {
+    val balls = BallColor.entries.take(BallColor.DEFAULT_COUNT).map {
         val ball = Ball();
         ball.color = it
         BallActor(ball, atlas).apply {
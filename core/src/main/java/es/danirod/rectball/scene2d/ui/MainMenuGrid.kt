@@ -21,11 +21,13 @@ import com.badlogic.gdx.scenes.scene2d.ui.Image
 import com.badlogic.gdx.scenes.scene2d.ui.ImageButton
 import com.badlogic.gdx.scenes.scene2d.ui.ImageTextButton
 import com.badlogic.gdx.scenes.scene2d.ui.Table
+import com.badlogic.gdx.scenes.scene2d.ui.TextButton
 import com.badlogic.gdx.scenes.scene2d.ui.Value
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener
 import com.badlogic.gdx.utils.Scaling
 import es.danirod.rectball.RectballGame
 import es.danirod.rectball.SoundPlayer
+import es.danirod.rectball.model.GameState
 import es.danirod.rectball.screens.GameScreen
 import es.danirod.rectball.screens.SettingsScreen
 import es.danirod.rectball.screens.StatisticsScreen
@@ -47,6 +49,16 @@ class MainMenuGrid(private val game: RectballGame) : Table() {
         })
     }
 
+    private val marathon = TextButton(game.locale["main.marathon"], game.appSkin).apply {
+        pad(15f)
+        addListener(object : ChangeListener() {
+            override fun changed(event: ChangeEvent?, actor: Actor?) {
+                game.player.playSound(SoundPlayer.SoundCode.SELECT)
+                game.pushScreen(GameScreen(game, GameState.MARATHON_SIZE))
+            }
+        })
+    }
+
     private val settings = ImageButton(game.appSkin, "settings").apply {
         pad(0f)
         addListener(object : ChangeListener() {
@@ -111,6 +123,7 @@ class MainMenuGrid(private val game: RectballGame) : Table() {
         defaults().space(25f).growX()
         add(logo).prefHeight(100f).minHeight(100f).spaceBottom(40f).colspan(2).expand().top().row()
         add(play).colspan(2).minHeight(Value.percentHeight(0.5f)).row()
+        add(marathon).colspan(2).row()
         add(settings).height(80f)
         add(statistics).height(80f)
         row()
@@ -27,6 +27,7 @@ import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
+import com.badlogic.gdx.utils.TimeUtils;
 
 import es.danirod.rectball.RectballGame;
 import es.danirod.rectball.SoundPlayer;
@@ -47,6 +48,11 @@ public abstract class AbstractScreen implements Screen {
     private final ShapeRenderer rendererDebug;
     private boolean renderDebug = false;
 
+    /** How long has the stage taken to draw since the last log, while debugging. */
+    private long drawNanos;
+
+    private int drawFrames;
+
     public AbstractScreen(RectballGame game) {
         this.game = game;
         this.viewport = new FractionalScreenViewport(game, 480, 640);
@@ -81,7 +87,13 @@ public abstract class AbstractScreen implements Screen {
         Gdx.gl.glClearColor(RectballGame.BG_COLOR.r, RectballGame.BG_COLOR.g, RectballGame.BG_COLOR.b, RectballGame.BG_COLOR.a);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
         stage.act();
-        stage.draw();
+        if (renderDebug) {
+            long start = TimeUtils.nanoTime();
+            stage.draw();
+            logDrawTime(TimeUtils.nanoTime() - start);
+        } else {
+            stage.draw();
+        }
 
         if (renderDebug) {
             rendererDebug.setProjectionMatrix(viewport.getCamera().combined);
@@ -106,6 +118,19 @@ public abstract class AbstractScreen implements Screen {
         }
     }
 
+    /**
+     * Log the average CPU time spent drawing the stage every 300 frames,
+     * so that different ways of drawing can be compared on a device.
+     */
+    private void logDrawTime(long nanos) {
+        drawNanos += nanos;
+        if (++drawFrames == 300) {
+            Gdx.app.log(getClass().getSimpleName(), "stage.draw: " + drawNanos / drawFrames / 1000 + " us/frame");
+            drawNanos = 0;
+            drawFrames = 0;
+        }
+    }
+
     @Override
     public void show() {
         Gdx.input.setCatchKey(Input.Keys.BACK, true);
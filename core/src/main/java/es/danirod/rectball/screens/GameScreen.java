@@ -16,7 +16,7 @@
  */
 package es.danirod.rectball.screens;
 
-import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
@@ -28,13 +28,19 @@ import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Value;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.utils.Align;
-import es.danirod.rectball.Constants;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import es.danirod.rectball.RectballGame;
 import es.danirod.rectball.SoundPlayer.SoundCode;
 import es.danirod.rectball.gameservices.GameUploader;
 import es.danirod.rectball.model.*;
-import es.danirod.rectball.scene2d.game.BallActor;
+import es.danirod.rectball.model.replay.Replay;
+import es.danirod.rectball.model.replay.ReplayFormat;
+import es.danirod.rectball.model.replay.ReplayRecorder;
+import es.danirod.rectball.model.solver.Solver;
 import es.danirod.rectball.scene2d.game.BoardActor;
+import es.danirod.rectball.scene2d.game.BoardRenderer;
+import es.danirod.rectball.scene2d.game.BoardView;
+import es.danirod.rectball.scene2d.game.ChunkedBoardActor;
 import es.danirod.rectball.scene2d.game.Hud;
 import es.danirod.rectball.scene2d.game.ScoreActor.ScoreListener;
 import es.danirod.rectball.scene2d.game.TimerActor.TimerCallback;
@@ -42,15 +48,14 @@ import es.danirod.rectball.scene2d.listeners.BallSelectionListener;
 import es.danirod.rectball.scene2d.ui.ConfirmDialog;
 import es.danirod.rectball.settings.StatSerializer;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
 
 public class GameScreen extends AbstractScreen implements TimerCallback, BallSelectionListener, ScoreListener {
 
     /**
      * Display the board representation.
      */
-    private BoardActor board;
+    private BoardView board;
 
     /**
      * The display used to represent information about the user.
@@ -72,12 +77,38 @@ public class GameScreen extends AbstractScreen implements TimerCallback, BallSel
      */
     private boolean askingLeave;
 
-    private final GameState state = new GameState();
+    private final GameState state;
+
+    /**
+     * Records what the player does during this game, so that it can be
+     * played again. Null if the game has been restored.
+     */
+    private ReplayRecorder recorder;
+
+    /** Whether this game was restored after the app was closed by the system. */
+    private boolean restored;
 
     private ConfirmDialog currentDialog = null;
 
     public GameScreen(RectballGame game) {
+        this(game, GameState.CLASSIC_SIZE);
+    }
+
+    /**
+     * @param game      the game.
+     * @param boardSize the size of the board, bigger than the classic size
+     *                  for a marathon.
+     */
+    public GameScreen(RectballGame game, int boardSize) {
         super(game);
+        state = new GameState(boardSize);
+
+        // The hint shows a good move. The search has to fit in a couple of
+        // frames, and it doesn't use threads since the web version has none.
+        // Big boards have too many moves to search, any move is shown.
+        if (boardSize <= Board.MAX_LISTED_SIZE) {
+            state.setHintSolver(new Solver(state.getRules(), 3, 4, 30));
+        }
     }
 
     /**
@@ -149,7 +180,7 @@ public class GameScreen extends AbstractScreen implements TimerCallback, BallSel
         super.show();
 
         table.setFillParent(false);
-        board = new BoardActor(game.getBallAtlas(), game.getAppSkin(), state.getBoard());
+        Actor boardActor = createBoard();
 
         hud = new Hud(game);
 
@@ -163,22 +194,22 @@ public class GameScreen extends AbstractScreen implements TimerCallback, BallSel
                 }
 
                 // Don't do anything if there are less than 5 seconds.
-                if (hud.getTimer().getSeconds() <= 5 && state.getWiggledBounds() == null) {
+                if (!state.canShowHint(hud.getTimer().getSeconds())) {
                     game.player.playSound(SoundCode.FAIL);
                     event.cancel();
                     return;
                 }
 
                 // Wiggle a valid combination.
-                if (state.getWiggledBounds() == null) {
-                    CombinationFinder finder = CombinationFinder.create(state.getBoard());
-                    state.setWiggledBounds(finder.getPossibleBounds().get(MathUtils.random(finder.getPossibleBounds().size() - 1)));
-                }
-                board.addAction(board.shake(state.getWiggledBounds(), 10, 5, 0.1f));
-
-                if (!state.isCheatSeen()) {
+                if (recorder != null)
+                    recorder.hint(state.getElapsedTime());
+                Bounds hint = state.showHint();
+                board.focus(hint);
+                board.addAction(board.shake(hint, 10, 5, 0.1f));
+
+                float subtractedTime = state.takeHintPenalty();
+                if (subtractedTime > 0) {
                     // Subtract some time.
-                    float subtractedTime = 5f;
                     final float step = subtractedTime / 10;
                     stage.addAction(Actions.repeat(10, Actions.delay(0.01f,
                             Actions.run(new Runnable() {
@@ -187,7 +218,6 @@ public class GameScreen extends AbstractScreen implements TimerCallback, BallSel
                                     hud.getTimer().setSeconds(hud.getTimer().getSeconds() - step);
                                 }
                             }))));
-                    state.setCheatSeen(true);
                 }
 
                 event.cancel();
@@ -221,7 +251,7 @@ public class GameScreen extends AbstractScreen implements TimerCallback, BallSel
         };
 
         table.add(hud).growX().minWidth(440f).prefWidth(Value.percentWidth(0.9f, table)).maxWidth(640f).pad(20f).align(Align.top).row();
-        table.add(board).growX().width(boardValue).height(boardValue)
+        table.add(boardActor).growX().width(boardValue).height(boardValue)
                 .expand().align(Align.center).row();
         board.pack();
         hud.pack();
@@ -232,8 +262,11 @@ public class GameScreen extends AbstractScreen implements TimerCallback, BallSel
         // Reset data
         if (!game.isRestoredState()) {
             state.reset();
+            recorder = new ReplayRecorder(state.getSeed(), state.getBoard().getSize(), state.getBoard().getColors());
         } else {
             game.setRestoredState(false);
+            restored = true;
+            recorder = loadRecording();
             if (state.isTimeout()) {
                 game.pushScreen(new GameOverScreen(game, state));
             }
@@ -267,6 +300,29 @@ public class GameScreen extends AbstractScreen implements TimerCallback, BallSel
         }
     }
 
+    /**
+     * Create the actor that displays the board. Boards bigger than the
+     * classic board don't fit in the screen, so they are displayed by an
+     * actor that can scroll and zoom, and that only draws what is visible.
+     *
+     * @return the actor, which is also kept as the board view.
+     */
+    private Actor createBoard() {
+        if (state.getBoard().getSize() > GameState.CLASSIC_SIZE) {
+            ChunkedBoardActor chunked = new ChunkedBoardActor(game.getBallAtlas(), game.getAppSkin(), state.getBoard());
+            board = chunked;
+            return chunked;
+        }
+        if (game.getSettings().getBatchedBoard()) {
+            BoardRenderer renderer = new BoardRenderer(game.getBallAtlas(), game.getAppSkin(), state.getBoard());
+            board = renderer;
+            return renderer;
+        }
+        BoardActor classic = new BoardActor(game.getBallAtlas(), game.getAppSkin(), state.getBoard());
+        board = classic;
+        return classic;
+    }
+
     /**
      * Create a countdown in the screen lasting for the amount of seconds given.
      * When the countdown reaches 0, the code provided in the runnable will
@@ -315,42 +371,31 @@ public class GameScreen extends AbstractScreen implements TimerCallback, BallSel
     }
 
     /**
-     * Generate new colors. This method is executed by the callback action
-     * when the player selects a valid rectangle. The purpose of this method
-     * is to regenerate the board and apply any required checks to make sure
-     * that the game doesn't enter in an infinite loop.
+     * Display the new colors. This method is executed by the callback action
+     * when the player selects a valid rectangle, once the selected balls
+     * have been hidden. The board has already been regenerated by then.
      *
-     * @param bounds the bounds that have to be regenerated.
+     * @param bounds the bounds that have been regenerated.
+     * @param boardReset whether the entire board had to be painted again.
      */
-    private void generate(Bounds bounds) {
-        // Generate new balls;
-        state.getBoard().randomize(
-                new Coordinate(bounds.minX, bounds.minY),
-                new Coordinate(bounds.maxX, bounds.maxY));
-
-        // Check the new board for valid combinations.
-        CombinationFinder newFinder = CombinationFinder.create(state.getBoard());
-        if (newFinder.getPossibleBounds().size() == 1) {
-            // Only one combination? This is trouble.
-            Bounds newCombinationBounds = newFinder.getCombination();
-            if (newCombinationBounds.equals(bounds)) {
-                // Oh, oh, in the same spot! So, they must be of the same color.
-                // Therefore, we need to randomize some balls to avoid enter
-                // an infinite loop.
-                hud.getTimer().setRunning(false);
-                board.setColoured(false);
-                state.resetBoard();
-                board.addAction(Actions.sequence(
-                        board.shake(10, 5, 0.05f),
-                        Actions.run(new Runnable() {
-                            @Override
-                            public void run() {
-                                board.setColoured(true);
-                                hud.getTimer().setRunning(true);
-                            }
-                        })));
-            }
+    private void generate(Bounds bounds, boolean boardReset) {
+        if (boardReset) {
+            // The only combination was in the same spot, so the entire
+            // board had to be painted again to avoid entering an
+            // infinite loop. Shake it to make the player notice.
+            hud.getTimer().setRunning(false);
+            board.setColoured(false);
+            board.addAction(Actions.sequence(
+                    board.shake(10, 5, 0.05f),
+                    Actions.run(new Runnable() {
+                        @Override
+                        public void run() {
+                            board.setColoured(true);
+                            hud.getTimer().setRunning(true);
+                        }
+                    })));
         }
+        board.syncColors();
         board.addAction(board.showRegion(bounds));
     }
 
@@ -419,6 +464,8 @@ public class GameScreen extends AbstractScreen implements TimerCallback, BallSel
 
         // If the game has started, pause it.
         if (running && !state.isTimeout()) {
+            if (recorder != null)
+                recorder.pause(state.getElapsedTime());
             board.setColoured(false);
             board.setTouchable(Touchable.disabled);
             hud.getTimer().setRunning(false);
@@ -446,6 +493,8 @@ public class GameScreen extends AbstractScreen implements TimerCallback, BallSel
         }
 
         if (running && !state.isTimeout()) {
+            if (recorder != null)
+                recorder.resume(state.getElapsedTime());
             board.setColoured(true);
             board.setTouchable(Touchable.enabled);
             hud.getTimer().setRunning(true);
@@ -455,12 +504,15 @@ public class GameScreen extends AbstractScreen implements TimerCallback, BallSel
     @Override
     public void pause() {
         // Put the bounds
-        state.setBoardBounds(new Rectangle(board.getX(), board.getY(), board.getWidth(), board.getHeight()));
+        state.setBoardBounds(board.getX(), board.getY(), board.getWidth(), board.getHeight());
 
         // Show the pause dialog if it is not already visible.
         if (!paused) {
             pauseGame();
         }
+
+        // The system may close the app now, keep what has been recorded.
+        saveRecording();
     }
 
     @Override
@@ -479,25 +531,26 @@ public class GameScreen extends AbstractScreen implements TimerCallback, BallSel
         game.getHaptics().vibrateMilliseconds(200);
 
         // Mark a combination that the user could do if he had enough time.
-        if (state.getWiggledBounds() == null) {
-            CombinationFinder combo = CombinationFinder.create(state.getBoard());
-            state.setWiggledBounds(combo.getCombination());
-        } else {
-            state.incrementHints();
-        }
-        for (int y = 0; y < state.getBoard().getSize(); y++) {
-            for (int x = 0; x < state.getBoard().getSize(); x++) {
-                if (state.getWiggledBounds() != null && !state.getWiggledBounds().inBounds(x, y)) {
-                    board.getBall(x, y).addAction(Actions.color(Color.DARK_GRAY, 0.15f));
-                }
-            }
+        // This also marks the game as finished.
+        Bounds shownBounds = state.finish();
+        if (shownBounds != null) {
+            board.focus(shownBounds);
         }
-
+        board.dim(shownBounds);
 
         StatSerializer.Companion.combine(state, game.getStatistics());
 
-        if (game.getContext().getGameServices().signedIn()) {
-            GameUploader uploader = new GameUploader(state, game.getContext().getGameServices());
+        Replay replay = null;
+        if (recorder != null) {
+            recorder.end(state.getElapsedTime(), state.getScore());
+            replay = recorder.toReplay();
+            saveReplay(replay);
+        }
+        deleteRecording();
+
+        // Leaderboards are only for classic games.
+        if (state.isClassic() && game.getContext().getGameServices().signedIn()) {
+            GameUploader uploader = new GameUploader(state, replay, restored, game.getContext().getGameServices());
             uploader.submit();
         }
 
@@ -513,22 +566,83 @@ public class GameScreen extends AbstractScreen implements TimerCallback, BallSel
                 game.pushScreen(new GameOverScreen(game, state));
             }
         })));
+    }
+
+    /**
+     * Keep the replay of the last game, so that it can be played again to
+     * reproduce any problem in it. Only the last game is kept.
+     *
+     * @param replay the replay to save.
+     */
+    private void saveReplay(Replay replay) {
+        if (!Gdx.files.isLocalStorageAvailable())
+            return;
+        try {
+            Gdx.files.local("replays/last.rbr").writeBytes(ReplayFormat.encode(replay), false);
+        } catch (GdxRuntimeException e) {
+            Gdx.app.error("GameScreen", "Cannot save the replay", e);
+        }
+    }
 
-        // Mark the game as finished.
-        state.setTimeout(true);
+    /**
+     * Keep the recording of the game being played, so that it can go on if
+     * the game is restored after the system closes the app.
+     */
+    private void saveRecording() {
+        if (recorder == null || recorder.isFinished() || !Gdx.files.isLocalStorageAvailable())
+            return;
+        try {
+            Gdx.files.local("replays/current.rbr").writeBytes(ReplayFormat.encode(recorder.toReplay()), false);
+        } catch (GdxRuntimeException e) {
+            Gdx.app.error("GameScreen", "Cannot save the recording", e);
+        }
+    }
+
+    /**
+     * Get the recording of a restored game back.
+     *
+     * @return a recorder that goes on with the recording, or null if there
+     * is no recording of this game.
+     */
+    private ReplayRecorder loadRecording() {
+        if (!Gdx.files.isLocalStorageAvailable() || !Gdx.files.local("replays/current.rbr").exists())
+            return null;
+        try {
+            Replay replay = ReplayFormat.decode(Gdx.files.local("replays/current.rbr").readBytes());
+            if (replay.isFinished() || replay.getSeed() != state.getSeed()
+                    || replay.getBoardSize() != state.getBoard().getSize()
+                    || replay.getColors() != state.getBoard().getColors())
+                return null;
+            return new ReplayRecorder(replay);
+        } catch (IOException | GdxRuntimeException e) {
+            Gdx.app.error("GameScreen", "Cannot load the recording", e);
+            return null;
+        }
+    }
+
+    private void deleteRecording() {
+        if (Gdx.files.isLocalStorageAvailable())
+            Gdx.files.local("replays/current.rbr").delete();
     }
 
     @Override
-    public void onSelectionSucceeded(final List<BallActor> selection) {
-        // Extract the data from the selection.
-        List<Ball> balls = new ArrayList<>();
-        for (BallActor selectedBall : selection)
-            balls.add(selectedBall.getBall());
-        final Bounds bounds = Bounds.fromBallList(balls);
+    public void onSelectionSucceeded(final Bounds bounds) {
         boolean usedCheat = state.getWiggledBounds() != null;
+        if (recorder != null)
+            recorder.select(state.getElapsedTime(), bounds);
 
-        if (usedCheat)
-            state.incrementHints();
+        // Give some score to the user. This also puts information about
+        // this combination in the stats.
+        boolean isPerfect = state.isPerfect(bounds);
+        int givenScore = state.scoreCombination(bounds);
+        hud.getScore().giveScore(givenScore);
+        int rows = bounds.rows();
+        int cols = bounds.cols();
+
+        // Generate new balls now, so that the board is always the same
+        // board a replay of this game would see. The new colors are not
+        // displayed until the selected region is hidden.
+        final boolean boardReset = state.regenerate(bounds);
 
         // Change the colors of the selected region.
         board.addAction(Actions.sequence(
@@ -536,38 +650,11 @@ public class GameScreen extends AbstractScreen implements TimerCallback, BallSel
                 Actions.run(new Runnable() {
                     @Override
                     public void run() {
-                        for (BallActor selectedBall : selection) {
-                            selectedBall.setColor(Color.WHITE);
-                        }
-                        generate(bounds);
-                        board.syncColors();
-                        // Reset the cheat
-                        state.setCheatSeen(false);
-                        state.setWiggledBounds(null);
+                        generate(bounds, boardReset);
                     }
                 })
         ));
 
-        // Give some score to the user.
-        ScoreCalculator calculator = new ScoreCalculator(state.getBoard(), bounds);
-        int givenScore = calculator.calculate();
-        if (usedCheat) {
-            givenScore *= 0.75f;
-        }
-        state.addScore(givenScore);
-        hud.getScore().giveScore(givenScore);
-
-        // Put information about this combination in the stats.
-        int rows = bounds.maxY - bounds.minY + 1;
-        int cols = bounds.maxX - bounds.minX + 1;
-        BallColor color = board.getBall(bounds.minX, bounds.minY).getBall().getColor();
-
-        // When the user selects the entire board, it is a perfect.
-        int boardSize = state.getBoard().getSize() - 1;
-        boolean isPerfect = bounds.equals(new Bounds(0, 0, boardSize, boardSize));
-
-        state.incrementCombinations(cols, rows, color, isPerfect);
-
         if (isPerfect) {
             // Just display PERFECT on the screen.
             Label label = new Label("PERFECT", game.getAppSkin(), "mono");
@@ -583,7 +670,7 @@ public class GameScreen extends AbstractScreen implements TimerCallback, BallSel
             game.player.playSound(SoundCode.PERFECT);
 
             // Give time
-            float givenTime = Constants.SECONDS - hud.getTimer().getSeconds();
+            float givenTime = state.getTimeBonus(givenScore, true, hud.getTimer().getSeconds());
             hud.getTimer().giveTime(givenTime, 4f);
         } else {
             // Was special?
@@ -599,26 +686,20 @@ public class GameScreen extends AbstractScreen implements TimerCallback, BallSel
             game.getHaptics().vibrateMilliseconds(60);
 
             // Give time
-            float givenTime = 4f + (givenScore) / 10f;
+            float givenTime = state.getTimeBonus(givenScore, false, hud.getTimer().getSeconds());
             hud.getTimer().giveTime(givenTime, 0.5f);
         }
     }
 
     @Override
-    public void onSelectionFailed(List<BallActor> selection) {
-        for (BallActor selected : selection) {
-            selected.addAction(Actions.scaleTo(1f, 1f, 0.15f));
-            selected.addAction(Actions.color(Color.WHITE, 0.15f));
-        }
+    public void onSelectionFailed(Bounds selection) {
+        board.resetBalls(selection);
         game.player.playSound(SoundCode.FAIL);
     }
 
     @Override
-    public void onSelectionCleared(List<BallActor> selection) {
-        for (BallActor selected : selection) {
-            selected.addAction(Actions.scaleTo(1f, 1f, 0.15f));
-            selected.addAction(Actions.color(Color.WHITE, 0.15f));
-        }
+    public void onSelectionCleared(Bounds selection) {
+        board.resetBalls(selection);
     }
 
     @Override
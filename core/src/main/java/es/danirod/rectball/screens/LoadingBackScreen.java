@@ -49,8 +49,7 @@ public class LoadingBackScreen extends AbstractScreen {
         table.setFillParent(false);
 
         boardActor = new BoardActor(game.getBallAtlas(), game.getAppSkin(), state.getBoard());
-        Rectangle bounds = state.getBoardBounds();
-        boardActor.setBounds(bounds.x, bounds.y, bounds.width, bounds.height);
+        boardActor.setBounds(state.getBoardX(), state.getBoardY(), state.getBoardWidth(), state.getBoardHeight());
 
         Value boardValue = new Value() {
             @Override
@@ -27,6 +27,7 @@ import com.badlogic.gdx.utils.Pools;
 
 import es.danirod.rectball.RectballGame;
 import es.danirod.rectball.SoundPlayer;
+import es.danirod.rectball.model.SplitMix64;
 import es.danirod.rectball.scene2d.game.BackgroundActor;
 import es.danirod.rectball.scene2d.ui.ConfirmDialog;
 import es.danirod.rectball.scene2d.ui.MainMenuGrid;
@@ -53,7 +54,7 @@ public class MainMenuScreen extends AbstractScreen {
         this.askTutorial = askTutorial("main.ask_tutorial");
         this.askInputMethod = askTutorial("main.ask_input_method");
         this.closeDialog = tutorialCancel();
-        this.background = new BackgroundActor(game.getBallAtlas());
+        this.background = new BackgroundActor(game.getBallAtlas(), new SplitMix64());
     }
 
     @Override
@@ -35,9 +35,7 @@ import es.danirod.rectball.RectballGame
 import es.danirod.rectball.SoundPlayer
 import es.danirod.rectball.model.BallColor
 import es.danirod.rectball.model.Bounds
-import es.danirod.rectball.model.CombinationFinder
 import es.danirod.rectball.model.GameState
-import es.danirod.rectball.scene2d.game.BallActor
 import es.danirod.rectball.scene2d.game.BoardActor
 import es.danirod.rectball.scene2d.game.Hud
 import es.danirod.rectball.scene2d.listeners.DefaultBallSelectionListener
@@ -245,7 +243,7 @@ class TutorialScreen(game: RectballGame) : AbstractScreen(game) {
 
             board.touchable = Touchable.enabled
             board.setSelectionListener(object : DefaultBallSelectionListener() {
-                override fun onSelectionSucceeded(selection: MutableList<BallActor>?) {
+                override fun onSelectionSucceeded(selection: Bounds?) {
                     stopCombinationHelpAnimation()
 
                     rewardPlayer(selection!!)
@@ -270,7 +268,7 @@ class TutorialScreen(game: RectballGame) : AbstractScreen(game) {
 
         modalThatWasEasy = makeModal(tutorialStrings[6], okText) {
             board.setSelectionListener(object : DefaultBallSelectionListener() {
-                override fun onSelectionSucceeded(selection: MutableList<BallActor>?) {
+                override fun onSelectionSucceeded(selection: Bounds?) {
                     stopCombinationHelpAnimation()
 
                     rewardPlayer(selection!!)
@@ -295,7 +293,7 @@ class TutorialScreen(game: RectballGame) : AbstractScreen(game) {
 
         modalBeatAHarderOne = makeModal(tutorialStrings[7], okText) {
             board.setSelectionListener(object : DefaultBallSelectionListener() {
-                override fun onSelectionSucceeded(selection: MutableList<BallActor>?) {
+                override fun onSelectionSucceeded(selection: Bounds?) {
                     stopCombinationHelpAnimation()
 
                     rewardPlayer(selection!!)
@@ -339,8 +337,7 @@ class TutorialScreen(game: RectballGame) : AbstractScreen(game) {
 
     private val watchdogTask: Timer.Task = object : Timer.Task() {
         override fun run() {
-            val finder = CombinationFinder.create(state.board)
-            finder.possibleBounds.forEach {
+            state.board.analysis.possibleBounds.forEach {
                 board.addAction(board.shake(it, 10f, 5, 0.1f))
             }
         }
@@ -442,11 +439,7 @@ class TutorialScreen(game: RectballGame) : AbstractScreen(game) {
         }
     }
 
-    private fun rewardPlayer(selection: List<BallActor>) {
-        /* Get the bounds. */
-        val balls = selection.map { it.ball }
-        val bounds = Bounds.fromBallList(balls)
-
+    private fun rewardPlayer(bounds: Bounds) {
         /* Add score. */
         val score = bounds.rows() * bounds.cols()
         hud.score.value += score
@@ -33,6 +33,7 @@ class AppSettings(override val preferences: GdxPreferences) : PreferenceContaine
     var vibrationEnabled by BoolPreference("settings.vibration", true)
     var keepScreenOn by BoolPreference("settings.screen_on", true)
     var colorblindMode by BoolPreference("settings.colorblind", false)
+    var batchedBoard by BoolPreference("settings.batched_board", false)
     var tutorialAsked by BoolPreference("main_menu.tutorial_asked", false)
     var newInputMethodAsked by BoolPreference("main_menu.new_input_method", false)
 }
@@ -29,10 +29,13 @@ class StatSerializer(private val state: GameState, private val appStats: AppStat
     }
 
     private fun combineNumerical() {
-        if (state.score > appStats.highScore)
-            appStats.highScore = state.score.toLong()
-        if (state.elapsedTime > appStats.highTime)
-            appStats.highTime = state.elapsedTime.toLong()
+        // Records are only kept for classic games.
+        if (state.isClassic) {
+            if (state.score > appStats.highScore)
+                appStats.highScore = state.score.toLong()
+            if (state.elapsedTime > appStats.highTime)
+                appStats.highTime = state.elapsedTime.toLong()
+        }
         appStats.totalScore += state.score
         appStats.totalHints += state.localStatistics.hints
         appStats.totalGems += state.localStatistics.gems
@@ -0,0 +1,67 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.utils
+
+/**
+ * A grid that grows to hold any cell that is read or written. The cells are
+ * kept in a single array, row after row, and the array doubles its size in
+ * the direction that has to grow, so reading a cell is a multiplication.
+ * Cells that have never been written are made by the generator the first
+ * time they are read.
+ *
+ * @since 0.5
+ */
+class GrowingGrid<T>(private val generator: (x: Int, y: Int) -> T) {
+
+    /** How many columns and rows fit in the array. */
+    private var cols = 0
+    private var rows = 0
+
+    private var items = arrayOfNulls<Any?>(0)
+
+    @Suppress("UNCHECKED_CAST")
+    operator fun get(x: Int, y: Int): T {
+        ensureCapacity(x, y)
+        val index = y * cols + x
+        return items[index] as T? ?: generator(x, y).also { items[index] = it }
+    }
+
+    operator fun set(x: Int, y: Int, value: T) {
+        ensureCapacity(x, y)
+        items[y * cols + x] = value
+    }
+
+    private fun ensureCapacity(x: Int, y: Int) {
+        require(x >= 0 && y >= 0) { "Cell out of the grid: $x, $y" }
+        if (x < cols && y < rows) {
+            return
+        }
+        val newCols = growCapacity(cols, x + 1)
+        val newRows = growCapacity(rows, y + 1)
+        val newItems = arrayOfNulls<Any?>(newCols * newRows)
+        for (row in 0 until rows) {
+            System.arraycopy(items, row * cols, newItems, row * newCols, cols)
+        }
+        items = newItems
+        cols = newCols
+        rows = newRows
+    }
+}
+
+/** The new capacity of a grid that has to hold at least some cells. */
+internal fun growCapacity(capacity: Int, needed: Int): Int =
+    if (needed <= capacity) capacity else maxOf(needed, capacity * 2, 8)
@@ -0,0 +1,76 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.utils
+
+import java.util.Arrays
+
+/**
+ * A GrowingGrid of ints, such as color indices, kept in an IntArray so
+ * that the cells are not boxed.
+ *
+ * @since 0.5
+ */
+class IntGrowingGrid(private val generator: Generator) {
+
+    /** Makes the value of a cell the first time it is read. */
+    fun interface Generator {
+        fun generate(x: Int, y: Int): Int
+    }
+
+    /** How many columns and rows fit in the array. */
+    private var cols = 0
+    private var rows = 0
+
+    private var items = IntArray(0)
+
+    operator fun get(x: Int, y: Int): Int {
+        ensureCapacity(x, y)
+        val index = y * cols + x
+        if (items[index] == UNSET) {
+            items[index] = generator.generate(x, y)
+        }
+        return items[index]
+    }
+
+    operator fun set(x: Int, y: Int, value: Int) {
+        require(value != UNSET) { "$value can't be stored in the grid" }
+        ensureCapacity(x, y)
+        items[y * cols + x] = value
+    }
+
+    private fun ensureCapacity(x: Int, y: Int) {
+        require(x >= 0 && y >= 0) { "Cell out of the grid: $x, $y" }
+        if (x < cols && y < rows) {
+            return
+        }
+        val newCols = growCapacity(cols, x + 1)
+        val newRows = growCapacity(rows, y + 1)
+        val newItems = IntArray(newCols * newRows)
+        Arrays.fill(newItems, UNSET)
+        for (row in 0 until rows) {
+            System.arraycopy(items, row * cols, newItems, row * newCols, cols)
+        }
+        items = newItems
+        cols = newCols
+        rows = newRows
+    }
+
+    companion object {
+        /** Marks the cells that haven't been generated yet. */
+        const val UNSET = Int.MIN_VALUE
+    }
+}
@@ -16,17 +16,29 @@
  */
 package es.danirod.rectball.model;
 
+/**
+ * A ball in a board. Balls that belong to a board don't hold their color,
+ * they read and write it through the bit masks of their board. Balls that
+ * have been created on their own keep their own color.
+ */
 public class Ball {
 
     private int x, y;
 
+    private final Board board;
+
     private BallColor color = null;
 
     public Ball() {
-
+        this.board = null;
     }
 
     public Ball(int x, int y) {
+        this(null, x, y);
+    }
+
+    Ball(Board board, int x, int y) {
+        this.board = board;
         this.x = x;
         this.y = y;
     }
@@ -40,10 +52,14 @@ public class Ball {
     }
 
     public BallColor getColor() {
-        return color;
+        return board != null ? board.getColor(x, y) : color;
     }
 
     public void setColor(BallColor color) {
-        this.color = color;
+        if (board != null) {
+            board.setColor(x, y, color);
+        } else {
+            this.color = color;
+        }
     }
 }
@@ -21,11 +21,36 @@ package es.danirod.rectball.model;
  * type is also responsible for getting the texture region of a sheet for
  * representing that color on the screen.
  *
+ * A game doesn't have to use every color: a game with N colors uses the
+ * first N of them, so the classic four keep their ordinals.
+ *
  * @author danirod
  */
 public enum BallColor {
     BLUE,
     GREEN,
     RED,
-    YELLOW
+    YELLOW,
+    PURPLE,
+    ORANGE,
+    CYAN,
+    PINK;
+
+    /** The number of colors of a classic game. */
+    public static final int DEFAULT_COUNT = 4;
+
+    /** The fewest colors a game can have. */
+    public static final int MIN_COUNT = 2;
+
+    /** The most colors a game can have. */
+    public static final int MAX_COUNT = 8;
+
+    /**
+     * @throws IllegalArgumentException if a game cannot have that number of colors.
+     */
+    public static void checkCount(int colors) {
+        if (colors < MIN_COUNT || colors > MAX_COUNT)
+            throw new IllegalArgumentException("Games must have between " + MIN_COUNT + " and " + MAX_COUNT
+                    + " colors, not " + colors);
+    }
 }
@@ -0,0 +1,155 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model;
+
+/**
+ * Compact storage for the colors of a board. Instead of keeping an object
+ * per cell, a bit mask is kept for every color, where the bit for a cell is
+ * set if the ball in that cell has that color. Colors are identified by
+ * their ordinal in {@link BallColor}, and {@link #EMPTY} is used for cells
+ * that haven't been painted yet. A bitboard only has masks for the colors
+ * the game uses.
+ *
+ * Masks can be read row by row using {@link #getRow(int, int, int)}. Rows
+ * are split in words of 64 columns each, so that the same code works for
+ * small boards (one word per row) and for very large boards.
+ *
+ * Every write also updates a Zobrist hash of the contents, so two bitboards
+ * with the same colors have the same {@link #getHash()} no matter the order
+ * in which they were painted. The key for a cell is derived on the fly from
+ * its index and color instead of being looked up in a table, which keeps
+ * boards of any size supported.
+ *
+ * @since 0.5
+ */
+public abstract class BitBoard {
+
+    /** The value returned for cells that have no color. */
+    public static final int EMPTY = -1;
+
+    /** Most colors a bitboard can have. */
+    static final int COLORS = BallColor.MAX_COUNT;
+
+    protected final int size;
+
+    /** Number of colors, one mask is kept for each of them. */
+    protected final int colors;
+
+    /** Zobrist hash of the current contents. Zero for an empty board. */
+    protected long hash;
+
+    protected BitBoard(int size, int colors) {
+        BallColor.checkCount(colors);
+        this.size = size;
+        this.colors = colors;
+    }
+
+    /**
+     * Creates the most compact bitboard able to hold a board of this size.
+     * Boards that fit in a single long per color (up to 8x8) are packed,
+     * the rest of boards use a multi-word mask per row.
+     *
+     * @param size   the size of the board
+     * @param colors the number of colors of the board
+     * @return a new empty bitboard
+     */
+    public static BitBoard create(int size, int colors) {
+        if (size * size <= Long.SIZE) {
+            return new PackedBitBoard(size, colors);
+        }
+        return new WideBitBoard(size, colors);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return how many colors this board has.
+     */
+    public int getColors() {
+        return colors;
+    }
+
+    /**
+     * @return a 64-bit hash of the colors of the board.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * The Zobrist key for painting a cell with a color.
+     *
+     * @param cell  the index of the cell, (y * size + x)
+     * @param color the ordinal of the color
+     */
+    static long zobrist(int cell, int color) {
+        return SplitMix64.mix64((cell * (long) COLORS + color + 1) * SplitMix64.GOLDEN_GAMMA);
+    }
+
+    /**
+     * @return how many 64-bit words are required to hold a row of the board.
+     */
+    public int getWordsPerRow() {
+        return (size + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    /**
+     * Get the color of the ball in the given cell.
+     *
+     * @return the ordinal of the color, or {@link #EMPTY} if not painted.
+     */
+    public int getColor(int x, int y) {
+        for (int color = 0; color < colors; color++) {
+            if (test(color, x, y)) {
+                return color;
+            }
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Paint the given cell. The bit for the cell is cleared in every other
+     * mask, so that a cell can only have a color at the same time.
+     *
+     * @param color the ordinal of the color, or {@link #EMPTY} to clear.
+     */
+    public abstract void setColor(int x, int y, int color);
+
+    /**
+     * @return true if the cell at the given position has the given color.
+     */
+    public abstract boolean test(int color, int x, int y);
+
+    /**
+     * Get a word of the mask for a row. Bit N of word W is set if the ball
+     * placed at column (W * 64 + N) of this row has the given color.
+     *
+     * @param color the ordinal of the color
+     * @param y     the row to read
+     * @param word  the word to read, between 0 and getWordsPerRow() - 1
+     * @return the mask for the requested columns
+     */
+    public abstract long getRow(int color, int y, int word);
+
+    /** Remove the color of every cell in this board. */
+    public abstract void clear();
+
+    /** Copy the colors of another bitboard of the same size and colors. */
+    public abstract void copyFrom(BitBoard other);
+}
@@ -0,0 +1,313 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model;
+
+import java.util.List;
+
+public class Board {
+
+    private static final BallColor[] COLORS = BallColor.values();
+
+    /**
+     * Boards bigger than this are not analysed listing every combination,
+     * there are too many of them. Their analysis is a summary instead.
+     */
+    public static final int MAX_LISTED_SIZE = 16;
+
+    private int size;
+
+    /** The colors of the board, stored as a bit mask per color. */
+    private BitBoard bits;
+
+    /**
+     * Handles for the cells of this board, created on demand. They don't
+     * hold state, reading or writing their color goes through the masks.
+     */
+    private Ball[][] balls;
+
+    /**
+     * Incremented every time a ball of this board changes its color. It is
+     * used to know whether the cached analysis is still valid.
+     */
+    private long version;
+
+    /** The last analysis made for this board. */
+    private BoardAnalysis analysis;
+
+    /** Keeps the combinations of the board between analysis. */
+    private IncrementalCombinationFinder finder;
+
+    /** The region that has changed since the last analysis. */
+    private int dirtyMinX, dirtyMinY, dirtyMaxX, dirtyMaxY;
+
+    private long analysisHits, analysisMisses;
+
+    /** Used to paint the board when it has to be randomized. */
+    private final BoardGenerator generator;
+
+    public Board() {
+        // No arg constructor.
+        this.generator = new BoardGenerator();
+    }
+
+    public Board(int size) {
+        this(size, new SplitMix64());
+    }
+
+    public Board(int size, RandomSource random) {
+        this(size, BallColor.DEFAULT_COUNT, random);
+    }
+
+    public Board(int size, int colors) {
+        this(size, colors, new SplitMix64());
+    }
+
+    /**
+     * @param size   the size of the board.
+     * @param colors how many colors the balls can have, the first colors
+     *               of {@link BallColor} are used.
+     * @param random the random source used to paint the board.
+     */
+    public Board(int size, int colors, RandomSource random) {
+        this.size = size;
+        this.generator = new BoardGenerator(random);
+        bits = BitBoard.create(size, colors);
+        balls = new Ball[size][size];
+        clearDirtyRegion();
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return how many colors the balls of this board can have.
+     */
+    public int getColors() {
+        return bits.getColors();
+    }
+
+    /**
+     * Make a copy of this board that uses its own random source, so that
+     * what would happen after a move can be tried without changing this
+     * board. The analysis is not copied.
+     *
+     * @param random the random source for the copy.
+     * @return a copy of this board.
+     */
+    public Board copy(RandomSource random) {
+        Board copy = new Board(size, bits.getColors(), random);
+        copy.bits.copyFrom(bits);
+        copy.touch(0, 0, size - 1, size - 1);
+        return copy;
+    }
+
+    /**
+     * Copy the colors of another board of the same size and colors into
+     * this board.
+     *
+     * @param other the board to copy.
+     */
+    public void copyFrom(Board other) {
+        bits.copyFrom(other.bits);
+        touch(0, 0, size - 1, size - 1);
+    }
+
+    public void randomize(Coordinate bottomLeft, Coordinate upperRight) {
+        generator.fill(this, new Bounds(bottomLeft.x, bottomLeft.y, upperRight.x, upperRight.y));
+    }
+
+    public void randomize() {
+        randomize(new Coordinate(0, 0), new Coordinate(size - 1, size - 1));
+    }
+
+    public Ball getBall(int x, int y) {
+        Ball ball = balls[x][y];
+        if (ball == null) {
+            ball = balls[x][y] = new Ball(this, x, y);
+        }
+        return ball;
+    }
+
+    public BallColor getColor(int x, int y) {
+        int color = bits.getColor(x, y);
+        return color == BitBoard.EMPTY ? null : COLORS[color];
+    }
+
+    public void setColor(int x, int y, BallColor color) {
+        if (color != null && color.ordinal() >= bits.getColors())
+            throw new IllegalArgumentException("This board doesn't use " + color);
+        bits.setColor(x, y, color == null ? BitBoard.EMPTY : color.ordinal());
+        touch(x, y, x, y);
+    }
+
+    /**
+     * Get the bit masks that hold the colors of this board. They should be
+     * treated as read only: changing them directly will not be noticed by
+     * the cached analysis. Use setColor() or randomize() instead.
+     *
+     * @return the bit masks that hold the colors of this board.
+     */
+    public BitBoard getBitBoard() {
+        return bits;
+    }
+
+    /**
+     * Get a Zobrist hash of the colors in this board. It is kept up to date
+     * by every write, including the ones made when a region is randomized,
+     * and unlike the version it only depends on the colors: two boards with
+     * the same balls have the same hash.
+     *
+     * @return a 64-bit hash of the colors in this board.
+     */
+    public long getHash() {
+        return bits.getHash();
+    }
+
+    /**
+     * @return a number that changes every time a ball changes its color.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the combinations that can be made in this board right now. The
+     * analysis is cached, so it is only made again if the board has changed
+     * since the last time it was requested. When the board has only changed
+     * in a region, only the combinations touching the region are updated.
+     *
+     * Boards bigger than {@link #MAX_LISTED_SIZE} are summarized instead,
+     * see {@link BoardAnalysis}.
+     *
+     * The analysis can be requested from several threads at the same time,
+     * as long as the board is not being changed while it is analysed.
+     *
+     * @return the analysis for the current state of the board.
+     */
+    public synchronized BoardAnalysis getAnalysis() {
+        if (analysis != null && analysis.getVersion() == version) {
+            analysisHits++;
+            return analysis;
+        }
+        analysisMisses++;
+
+        if (size > MAX_LISTED_SIZE) {
+            clearDirtyRegion();
+            analysis = BoardAnalysis.summarize(version, bits);
+            return analysis;
+        }
+
+        if (finder == null) {
+            finder = new IncrementalCombinationFinder(this);
+        } else if (dirtyMinX == 0 && dirtyMinY == 0 && dirtyMaxX == size - 1 && dirtyMaxY == size - 1) {
+            finder.rebuild();
+        } else if (dirtyMinX <= dirtyMaxX) {
+            finder.update(new Bounds(dirtyMinX, dirtyMinY, dirtyMaxX, dirtyMaxY));
+        }
+        clearDirtyRegion();
+
+        analysis = new BoardAnalysis(version, finder.getPossibleBounds());
+        return analysis;
+    }
+
+    /**
+     * @return how many times the cached analysis has been reused.
+     */
+    public synchronized long getAnalysisHits() {
+        return analysisHits;
+    }
+
+    /**
+     * @return how many times the analysis had to be made again.
+     */
+    public synchronized long getAnalysisMisses() {
+        return analysisMisses;
+    }
+
+    /**
+     * Change the source of random numbers used to randomize this board.
+     *
+     * @param random the new random source
+     */
+    public void setRandom(RandomSource random) {
+        generator.setRandom(random);
+    }
+
+    /**
+     * @return the generator used to randomize this board.
+     */
+    public BoardGenerator getGenerator() {
+        return generator;
+    }
+
+    /** Notify that the balls in the given region have changed. */
+    void touch(int minX, int minY, int maxX, int maxY) {
+        version++;
+        dirtyMinX = Math.min(dirtyMinX, minX);
+        dirtyMinY = Math.min(dirtyMinY, minY);
+        dirtyMaxX = Math.max(dirtyMaxX, maxX);
+        dirtyMaxY = Math.max(dirtyMaxY, maxY);
+    }
+
+    private void clearDirtyRegion() {
+        dirtyMinX = dirtyMinY = Integer.MAX_VALUE;
+        dirtyMaxX = dirtyMaxY = Integer.MIN_VALUE;
+    }
+
+    /**
+     * This method should be invoked when four balls have been selected. The
+     * method will evaluate whether the selected balls are valid. If are valid
+     * then that region will be regenerated. The result will also be returned
+     * so that the client code can use the value.
+     *
+     * @param balls the balls that have been selected.
+     * @return whether those balls are valid or not
+     */
+    public boolean selection(List<Ball> balls) {
+        // If there aren't 4 balls, this is an error.
+        if (balls.size() != 4)
+            return false;
+
+        // Check that the selection is valid. To be valid, four balls of the
+        // same colour that form a square have to be selected. Otherwise,
+        // it's not valid.
+        Selection selection = new Selection(bits, balls);
+        return selection.checkSameColor() && selection.checkSquare();
+    }
+
+    /**
+     * Check whether the given bounds are a valid combination in this board,
+     * that is, whether its four corners share the same color. This is the
+     * same check that a selection does, for code that only knows about the
+     * bounds, such as a replay.
+     *
+     * @param bounds the bounds to test.
+     * @return whether the corners of those bounds make a combination.
+     */
+    public boolean isCombination(Bounds bounds) {
+        if (bounds.minX < 0 || bounds.minY < 0 || bounds.maxX >= size || bounds.maxY >= size)
+            return false;
+        if (bounds.minX >= bounds.maxX || bounds.minY >= bounds.maxY)
+            return false;
+        int color = bits.getColor(bounds.minX, bounds.minY);
+        return color != BitBoard.EMPTY
+                && bits.test(color, bounds.maxX, bounds.minY)
+                && bits.test(color, bounds.minX, bounds.maxY)
+                && bits.test(color, bounds.maxX, bounds.maxY);
+    }
+}
@@ -0,0 +1,139 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of looking for combinations in a board at a given moment.
+ * Boards cache the last analysis they made and only compute it again when
+ * any of their balls changes, so that the score calculator, the board
+ * generator and the help button can share the same analysis.
+ *
+ * The analysis is immutable. It is tagged with the version of the board it
+ * was computed from, it becomes stale when the board changes.
+ *
+ * Big boards can have millions of combinations, too many to list them
+ * after every move. Their analysis is a summary that only counts them and
+ * keeps the first and the best one, which is all the game needs. The list
+ * is only made if it is requested, from a copy of the board taken when the
+ * analysis was made.
+ *
+ * @since 0.5
+ */
+public class BoardAnalysis {
+
+    private final long version;
+
+    private List<Bounds> combinations;
+
+    private final int count;
+
+    private final Bounds first;
+
+    private final Bounds best;
+
+    /** The colors of the board, kept to list the combinations of a summary. */
+    private final BitBoard bits;
+
+    BoardAnalysis(long version, List<Bounds> combinations) {
+        this.version = version;
+        this.combinations = Collections.unmodifiableList(new ArrayList<>(combinations));
+        this.count = combinations.size();
+        this.first = combinations.isEmpty() ? null : combinations.get(0);
+        this.best = CombinationFinder.findBestCombination(combinations);
+        this.bits = null;
+    }
+
+    private BoardAnalysis(long version, int count, Bounds first, Bounds best, BitBoard bits) {
+        this.version = version;
+        this.count = count;
+        this.first = first;
+        this.best = best;
+        this.bits = bits;
+    }
+
+    /**
+     * Make the summary of a board, without listing its combinations.
+     *
+     * @param version the version of the board.
+     * @param board   the colors of the board, they are copied.
+     * @return the summary of the board.
+     */
+    static BoardAnalysis summarize(long version, BitBoard board) {
+        BitBoard bits = BitBoard.create(board.getSize(), board.getColors());
+        bits.copyFrom(board);
+        CombinationFinder.Summary summary = CombinationFinder.summarize(bits);
+        return new BoardAnalysis(version, summary.count, summary.first, summary.best, bits);
+    }
+
+    /**
+     * @return the version of the board this analysis was made for.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public synchronized List<Bounds> getPossibleBounds() {
+        if (combinations == null) {
+            combinations = Collections.unmodifiableList(CombinationFinder.calculateCombinations(bits));
+        }
+        return combinations;
+    }
+
+    /**
+     * @return whether the combinations have been listed, or this analysis
+     * is a summary whose list would have to be made first.
+     */
+    public synchronized boolean isListed() {
+        return combinations != null;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public Bounds getCombination() {
+        return first;
+    }
+
+    public Bounds getBestCombination() {
+        return best;
+    }
+
+    /**
+     * Pick a combination at random. Every combination has the same chance
+     * of being picked. Summaries don't need to list the combinations to
+     * pick one.
+     *
+     * @param random the random source to use.
+     * @return a combination, or null if there are none.
+     */
+    public Bounds pickCombination(RandomSource random) {
+        if (count == 0)
+            return null;
+        if (bits == null)
+            return combinations.get(random.nextInt(count));
+        return CombinationFinder.findCombination(bits, random.nextInt(count));
+    }
+
+    public boolean areThereCombinations() {
+        return count > 0;
+    }
+}
@@ -0,0 +1,130 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model;
+
+/**
+ * Paints regions of a board making sure that there is always at least a
+ * combination afterwards. The region is painted at random until there is a
+ * combination in the board, like the game always did, but only up to
+ * {@link #MAX_PAINTS} times. If there is still no combination, a rectangle
+ * of a random color is planted in a random place of the region, so the
+ * time it takes to paint a region is bounded.
+ *
+ * A planted board is not distributed like a painted one: it tends to have
+ * fewer and smaller combinations. But a rectangle is only planted when
+ * every paint has failed, which happens with probability p^MAX_PAINTS if
+ * a single paint fails with probability p. On the boards of the game p is
+ * small enough for the boards to be the same as the ones the game always
+ * made, which CompareGenerators in :tools checks. Only tiny boards with
+ * many colors, such as 4x4 with 8, still need rectangles often.
+ *
+ * @since 0.5
+ */
+public class BoardGenerator {
+
+    /** How many times a region is painted before a rectangle is planted. */
+    public static final int MAX_PAINTS = 32;
+
+    private RandomSource random;
+
+    /** How many regions have been painted. */
+    private long generated;
+
+    /** How many times a rectangle has been planted. */
+    private long planted;
+
+    /** How many times a region has been painted again. */
+    private long retries;
+
+    public BoardGenerator() {
+        this(new SplitMix64());
+    }
+
+    public BoardGenerator(RandomSource random) {
+        this.random = random;
+    }
+
+    /**
+     * Change the source of random numbers used to paint the board. Boards
+     * painted using sources with the same seed will have the same colors.
+     *
+     * @param random the new random source
+     */
+    public void setRandom(RandomSource random) {
+        this.random = random;
+    }
+
+    /**
+     * Paint the balls in the given region of the board.
+     *
+     * @param board  the board to paint
+     * @param region the region of the board to paint
+     */
+    public void fill(Board board, Bounds region) {
+        BitBoard bits = board.getBitBoard();
+        generated++;
+        paint(bits, region);
+        boolean plantable = region.cols() >= 2 && region.rows() >= 2;
+        for (int paints = 1; !CombinationFinder.hasAnyCombination(board); paints++) {
+            // A rectangle doesn't fit in a thinner region, it has to be painted again.
+            if (plantable && paints >= MAX_PAINTS) {
+                plant(bits, region);
+                planted++;
+                break;
+            }
+            retries++;
+            paint(bits, region);
+        }
+        board.touch(region.minX, region.minY, region.maxX, region.maxY);
+    }
+
+    private void paint(BitBoard bits, Bounds region) {
+        for (int x = region.minX; x <= region.maxX; x++) {
+            for (int y = region.minY; y <= region.maxY; y++) {
+                bits.setColor(x, y, random.nextInt(bits.getColors()));
+            }
+        }
+    }
+
+    /** Paint the corners of a random rectangle inside the region. */
+    private void plant(BitBoard bits, Bounds region) {
+        int left = random.nextInt(region.cols());
+        int right = random.nextInt(region.cols() - 1);
+        if (right >= left) right++;
+        int bottom = random.nextInt(region.rows());
+        int top = random.nextInt(region.rows() - 1);
+        if (top >= bottom) top++;
+
+        int color = random.nextInt(bits.getColors());
+        bits.setColor(region.minX + left, region.minY + bottom, color);
+        bits.setColor(region.minX + left, region.minY + top, color);
+        bits.setColor(region.minX + right, region.minY + bottom, color);
+        bits.setColor(region.minX + right, region.minY + top, color);
+    }
+
+    public long getGeneratedCount() {
+        return generated;
+    }
+
+    public long getPlantedCount() {
+        return planted;
+    }
+
+    public long getRetryCount() {
+        return retries;
+    }
+}
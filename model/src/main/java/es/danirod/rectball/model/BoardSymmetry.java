@@ -0,0 +1,244 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model;
+
+import java.util.Arrays;
+
+/**
+ * Canonical forms of a board. Rotating or reflecting a board, or swapping
+ * its colors, doesn't change which combinations it has or how much they
+ * are worth, so the 8 geometric symmetries of the square and the 24 ways
+ * of relabeling the colors turn up to 192 boards into the same puzzle.
+ * Every board of the group gets the same canonical key, so caches and
+ * puzzle collections keyed by it treat them as a single board.
+ *
+ * For every geometric transform, colors are relabeled in the order they
+ * first appear reading the transformed board row by row. The transform
+ * with the smallest key is the canonical one.
+ *
+ * Boards up to 8x8 are transformed using bit tricks on the color masks,
+ * which takes a few dozen operations per transform. Bigger boards are
+ * transformed cell by cell.
+ *
+ * @since 0.5
+ */
+public final class BoardSymmetry {
+
+    /** Number of geometric transforms of a square. */
+    public static final int TRANSFORMS = 8;
+
+    /** Transform bit: swap rows and columns first. */
+    private static final int TRANSPOSE = 4;
+
+    /** Transform bit: then flip the columns. */
+    private static final int MIRROR = 1;
+
+    /** Transform bit: then flip the rows. */
+    private static final int FLIP = 2;
+
+    private BoardSymmetry() {
+    }
+
+    /**
+     * @return the canonical key of the board, which is the same for every
+     * board that can be turned into this one by rotating or reflecting it
+     * and relabeling its colors.
+     */
+    public static long canonicalKey(Board board) {
+        return canonicalKey(board.getBitBoard());
+    }
+
+    public static long canonicalKey(BitBoard bits) {
+        long[] spread = spread(bits);
+        long[] masks = new long[bits.getColors()];
+        long best = 0;
+        for (int t = 0; t < TRANSFORMS; t++) {
+            long key = key(bits, spread, masks, t);
+            if (t == 0 || Long.compareUnsigned(key, best) < 0)
+                best = key;
+        }
+        return best;
+    }
+
+    /**
+     * Build the canonical form of a board: the board that every board with
+     * the same canonical key turns into.
+     *
+     * @param board the board to transform. It is not changed.
+     * @return a new board with the canonical form.
+     */
+    public static Board canonicalForm(Board board) {
+        BitBoard bits = board.getBitBoard();
+        long[] spread = spread(bits);
+        long[] masks = new long[bits.getColors()];
+        int best = 0;
+        long bestKey = 0;
+        for (int t = 0; t < TRANSFORMS; t++) {
+            long key = key(bits, spread, masks, t);
+            if (t == 0 || Long.compareUnsigned(key, bestKey) < 0) {
+                best = t;
+                bestKey = key;
+            }
+        }
+
+        int size = bits.getSize();
+        int[] cells = transformCells(bits, best);
+        Board canonical = new Board(size, bits.getColors());
+        BallColor[] colors = BallColor.values();
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] != BitBoard.EMPTY)
+                canonical.setColor(i % size, i / size, colors[cells[i]]);
+        }
+        return canonical;
+    }
+
+    /**
+     * Where a cell ends up after a transform.
+     *
+     * @return the column in the transformed board.
+     */
+    public static int transformX(int transform, int x, int y, int size) {
+        int tx = (transform & TRANSPOSE) != 0 ? y : x;
+        return (transform & MIRROR) != 0 ? size - 1 - tx : tx;
+    }
+
+    /**
+     * Where a cell ends up after a transform.
+     *
+     * @return the row in the transformed board.
+     */
+    public static int transformY(int transform, int x, int y, int size) {
+        int ty = (transform & TRANSPOSE) != 0 ? x : y;
+        return (transform & FLIP) != 0 ? size - 1 - ty : ty;
+    }
+
+    private static long key(BitBoard bits, long[] spread, long[] masks, int transform) {
+        if (spread != null)
+            return packedKey(bits.getSize(), spread, masks, transform);
+
+        // Hash the cells of the transformed board, row by row, relabeling
+        // the colors in the order they first appear.
+        int[] cells = transformCells(bits, transform);
+        long hash = bits.getSize();
+        for (int cell : cells) {
+            hash = SplitMix64.mix64(hash + (cell + 1) * SplitMix64.GOLDEN_GAMMA);
+        }
+        return hash;
+    }
+
+    /**
+     * The cells of the transformed board in row order, with the colors
+     * relabeled in the order they first appear.
+     */
+    private static int[] transformCells(BitBoard bits, int transform) {
+        int size = bits.getSize();
+        int[] cells = new int[size * size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                cells[transformY(transform, x, y, size) * size + transformX(transform, x, y, size)] =
+                        bits.getColor(x, y);
+            }
+        }
+
+        int[] labels = new int[bits.getColors()];
+        Arrays.fill(labels, BitBoard.EMPTY);
+        int next = 0;
+        for (int i = 0; i < cells.length; i++) {
+            int color = cells[i];
+            if (color == BitBoard.EMPTY)
+                continue;
+            if (labels[color] == BitBoard.EMPTY)
+                labels[color] = next++;
+            cells[i] = labels[color];
+        }
+        return cells;
+    }
+
+    /**
+     * Spread the masks of a board up to 8x8 to an 8x8 layout, with one byte
+     * per row, where flips and transposition are a few shifts and swaps.
+     *
+     * @return the masks, or null if the board is bigger than 8x8.
+     */
+    private static long[] spread(BitBoard bits) {
+        int size = bits.getSize();
+        if (size > 8)
+            return null;
+        long[] spread = new long[bits.getColors()];
+        for (int c = 0; c < spread.length; c++) {
+            for (int y = 0; y < size; y++) {
+                spread[c] |= bits.getRow(c, y, 0) << (8 * y);
+            }
+        }
+        return spread;
+    }
+
+    /**
+     * Key for boards up to 8x8. Relabeling the colors in the order they
+     * first appear is the same as sorting the masks by their lowest bit,
+     * since masks don't share bits.
+     */
+    private static long packedKey(int size, long[] spread, long[] masks, int transform) {
+        for (int c = 0; c < masks.length; c++) {
+            long mask = spread[c];
+            if ((transform & TRANSPOSE) != 0)
+                mask = transpose(mask);
+            if ((transform & MIRROR) != 0)
+                mask = mirror(mask) >>> (8 - size);
+            if ((transform & FLIP) != 0)
+                mask = Long.reverseBytes(mask) >>> (8 * (8 - size));
+            masks[c] = mask;
+        }
+
+        // Insertion sort, by lowest bit. Empty masks go last.
+        for (int i = 1; i < masks.length; i++) {
+            long mask = masks[i];
+            int j = i - 1;
+            while (j >= 0 && Long.numberOfTrailingZeros(masks[j]) > Long.numberOfTrailingZeros(mask)) {
+                masks[j + 1] = masks[j];
+                j--;
+            }
+            masks[j + 1] = mask;
+        }
+
+        long hash = size;
+        for (long mask : masks) {
+            hash = SplitMix64.mix64(hash ^ mask) + SplitMix64.GOLDEN_GAMMA;
+        }
+        return hash;
+    }
+
+    /** Flip the columns of an 8x8 mask. */
+    private static long mirror(long x) {
+        x = ((x >>> 1) & 0x5555555555555555L) | ((x & 0x5555555555555555L) << 1);
+        x = ((x >>> 2) & 0x3333333333333333L) | ((x & 0x3333333333333333L) << 2);
+        x = ((x >>> 4) & 0x0f0f0f0f0f0f0f0fL) | ((x & 0x0f0f0f0f0f0f0f0fL) << 4);
+        return x;
+    }
+
+    /** Swap the rows and the columns of an 8x8 mask. */
+    private static long transpose(long x) {
+        long t;
+        t = 0x0f0f0f0f00000000L & (x ^ (x << 28));
+        x ^= t ^ (t >>> 28);
+        t = 0x3333000033330000L & (x ^ (x << 14));
+        x ^= t ^ (t >>> 14);
+        t = 0x5500550055005500L & (x ^ (x << 7));
+        x ^= t ^ (t >>> 7);
+        return x;
+    }
+}
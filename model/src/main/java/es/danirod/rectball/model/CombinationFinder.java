@@ -0,0 +1,319 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model;
+
+import java.util.*;
+
+/**
+ * Finds the combinations that can be made in a board. A finder is just the
+ * result of analysing a board at the moment it was created: it doesn't keep
+ * a reference to the board and it cannot be modified, so finders can be
+ * created and shared from any thread. Different threads can analyse
+ * different boards at the same time.
+ */
+public final class CombinationFinder {
+
+    private final List<Bounds> bounds;
+
+    private CombinationFinder(List<Bounds> bounds) {
+        this.bounds = Collections.unmodifiableList(bounds);
+    }
+
+    public static CombinationFinder create(Board board) {
+        return new CombinationFinder(calculateCombinations(board.getBitBoard()));
+    }
+
+    /**
+     * Check whether there is at least a combination in the given board.
+     * This is faster than creating a finder when only the existence of a
+     * combination is required, since it doesn't list the combinations and
+     * it stops as soon as the first one is found.
+     *
+     * @param board the board to check
+     * @return true if there is at least a combination in the board
+     */
+    public static boolean hasAnyCombination(Board board) {
+        BitBoard bits = board.getBitBoard();
+        int size = bits.getSize();
+        int words = bits.getWordsPerRow();
+        for (int y = 0; y < size - 1; y++) {
+            for (int top = y + 1; top < size; top++) {
+                for (int color = 0; color < bits.getColors(); color++) {
+                    // Two columns sharing color in both rows are enough.
+                    int shared = 0;
+                    for (int w = 0; w < words && shared < 2; w++)
+                        shared += Long.bitCount(bits.getRow(color, y, w) & bits.getRow(color, top, w));
+                    if (shared >= 2)
+                        return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Find every combination in the board. For every row, the masks of
+     * each color are ANDed with the masks of the rows above it, so that the
+     * result has a bit set for every column where both rows share color.
+     * Every pair of set bits in the result whose cells share color in the
+     * bottom row are the left and right column of a combination.
+     *
+     * Combinations are listed sorted by bottom row, left column, right
+     * column and top row.
+     */
+    static List<Bounds> calculateCombinations(BitBoard bits) {
+        List<Bounds> bounds = new ArrayList<>();
+        int width, height;
+        width = height = bits.getSize();
+        int words = bits.getWordsPerRow();
+        long[] pairs = new long[height * words];
+        long[] partnered = new long[words];
+
+        for (int y = 0; y < height - 1; y++) {
+            // pairs[top]: columns whose color is the same in both rows.
+            // partnered: columns that share color with at least a row.
+            Arrays.fill(partnered, 0L);
+            for (int top = y + 1; top < height; top++) {
+                for (int w = 0; w < words; w++) {
+                    long same = 0;
+                    for (int color = 0; color < bits.getColors(); color++)
+                        same |= bits.getRow(color, y, w) & bits.getRow(color, top, w);
+                    pairs[top * words + w] = same;
+                    partnered[w] |= same;
+                }
+            }
+
+            for (int x = 0; x < width - 1; x++) {
+                int leftWord = x >>> 6;
+                long leftBit = 1L << x;
+                if ((partnered[leftWord] & leftBit) == 0)
+                    continue;
+                int refColor = bits.getColor(x, y);
+
+                // Candidates for the right column are the balls to the
+                // right of this one in this row with the same color.
+                for (int w = leftWord; w < words; w++) {
+                    long candidates = bits.getRow(refColor, y, w) & partnered[w];
+                    if (w == leftWord)
+                        candidates &= -2L << x;
+                    while (candidates != 0) {
+                        int row = (w << 6) + Long.numberOfTrailingZeros(candidates);
+                        long rightBit = candidates & -candidates;
+                        candidates &= candidates - 1;
+                        for (int col = y + 1; col < height; col++) {
+                            if ((pairs[col * words + leftWord] & leftBit) != 0
+                                && (pairs[col * words + w] & rightBit) != 0) {
+                                bounds.add(new Bounds(x, y, row, col));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return bounds;
+    }
+
+    /** What a summary of a board knows about its combinations. */
+    static final class Summary {
+        int count;
+        Bounds first;
+        Bounds best;
+    }
+
+    /**
+     * Count the combinations of a board and find the first and the best one
+     * without listing them. For every pair of rows and every color, the
+     * columns where both rows have that color make a combination with each
+     * other, so there are k * (k - 1) / 2 combinations when there are k of
+     * them, and the widest one is made by the leftmost and the rightmost
+     * column. The first and the best combination are the same ones that
+     * would be found in the list.
+     *
+     * @param bits the board to summarize.
+     * @return the summary of the board.
+     */
+    static Summary summarize(BitBoard bits) {
+        Summary summary = new Summary();
+        int size = bits.getSize();
+        int words = bits.getWordsPerRow();
+        long count = 0;
+        int bestArea = 0, bestMinX = 0, bestMinY = 0, bestMaxX = 0, bestMaxY = 0;
+
+        for (int y = 0; y < size - 1; y++) {
+            int firstMinX = Integer.MAX_VALUE, firstMaxX = 0, firstMaxY = 0;
+            for (int top = y + 1; top < size; top++) {
+                for (int color = 0; color < bits.getColors(); color++) {
+                    int shared = 0, left = -1, second = -1, right = -1;
+                    for (int w = 0; w < words; w++) {
+                        long same = bits.getRow(color, y, w) & bits.getRow(color, top, w);
+                        if (same == 0)
+                            continue;
+                        if (left < 0) {
+                            left = (w << 6) + Long.numberOfTrailingZeros(same);
+                            long rest = same & (same - 1);
+                            if (rest != 0)
+                                second = (w << 6) + Long.numberOfTrailingZeros(rest);
+                        } else if (second < 0) {
+                            second = (w << 6) + Long.numberOfTrailingZeros(same);
+                        }
+                        right = (w << 6) + 63 - Long.numberOfLeadingZeros(same);
+                        shared += Long.bitCount(same);
+                    }
+                    if (shared < 2)
+                        continue;
+                    count += (long) shared * (shared - 1) / 2;
+
+                    // Sorted by left column, right column and top row.
+                    if (summary.first == null && (left < firstMinX
+                            || left == firstMinX && (second < firstMaxX || second == firstMaxX && top < firstMaxY))) {
+                        firstMinX = left;
+                        firstMaxX = second;
+                        firstMaxY = top;
+                    }
+
+                    // Ties are won by the combination that comes first.
+                    int area = (right - left + 1) * (top - y + 1);
+                    if (area > bestArea || area == bestArea && y == bestMinY && (left < bestMinX
+                            || left == bestMinX && (right < bestMaxX || right == bestMaxX && top < bestMaxY))) {
+                        bestArea = area;
+                        bestMinX = left;
+                        bestMinY = y;
+                        bestMaxX = right;
+                        bestMaxY = top;
+                    }
+                }
+            }
+            if (summary.first == null && firstMinX != Integer.MAX_VALUE) {
+                summary.first = new Bounds(firstMinX, y, firstMaxX, firstMaxY);
+            }
+        }
+
+        summary.count = (int) Math.min(count, Integer.MAX_VALUE);
+        if (bestArea > 0) {
+            summary.best = new Bounds(bestMinX, bestMinY, bestMaxX, bestMaxY);
+        }
+        return summary;
+    }
+
+    /**
+     * Find a combination given its position, without listing them. The
+     * combinations are not in the order of the list, they are sorted by
+     * bottom row, top row, color, left column and right column, which is
+     * the order summarize() counts them.
+     *
+     * @param bits  the board.
+     * @param index the position of the combination, less than the count.
+     * @return the combination at that position.
+     */
+    static Bounds findCombination(BitBoard bits, int index) {
+        int size = bits.getSize();
+        int words = bits.getWordsPerRow();
+        int[] columns = new int[size];
+        for (int y = 0; y < size - 1; y++) {
+            for (int top = y + 1; top < size; top++) {
+                for (int color = 0; color < bits.getColors(); color++) {
+                    int shared = 0;
+                    for (int w = 0; w < words; w++)
+                        shared += Long.bitCount(bits.getRow(color, y, w) & bits.getRow(color, top, w));
+                    int pairs = shared * (shared - 1) / 2;
+                    if (index >= pairs) {
+                        index -= pairs;
+                        continue;
+                    }
+
+                    // It is in this pair of rows, find which columns.
+                    int k = 0;
+                    for (int w = 0; w < words; w++) {
+                        long same = bits.getRow(color, y, w) & bits.getRow(color, top, w);
+                        while (same != 0) {
+                            columns[k++] = (w << 6) + Long.numberOfTrailingZeros(same);
+                            same &= same - 1;
+                        }
+                    }
+                    for (int left = 0; ; left++) {
+                        int partners = shared - 1 - left;
+                        if (index < partners)
+                            return new Bounds(columns[left], y, columns[left + 1 + index], top);
+                        index -= partners;
+                    }
+                }
+            }
+        }
+        throw new IndexOutOfBoundsException("There are not that many combinations");
+    }
+
+    public List<Bounds> getPossibleBounds() {
+        return bounds;
+    }
+
+    public Bounds getCombination() {
+        return bounds.isEmpty() ? null : bounds.get(0);
+    }
+
+    public Bounds getBestCombination() {
+        return findBestCombination(bounds);
+    }
+
+    /**
+     * Pick the greatest combination of the given list, according to their
+     * weight. If there is a tie, the first one is picked.
+     *
+     * @param bounds  the combinations to choose from.
+     * @return  the best combination, or null if the list is empty
+     */
+    static Bounds findBestCombination(List<Bounds> bounds) {
+        if (bounds.isEmpty())
+            return null;
+        Bounds maxBounds = bounds.get(0);
+        for (Bounds thisBounds : bounds)
+            if (getWeightForCombination(thisBounds) > getWeightForCombination(maxBounds))
+                maxBounds = thisBounds;
+        return maxBounds;
+    }
+
+    public Bounds getWorstCombination() {
+        if (bounds.isEmpty())
+            return null;
+        Bounds minBounds = bounds.get(0);
+        for (Bounds thisBounds : bounds)
+            if (getWeightForCombination(thisBounds) < getWeightForCombination(minBounds))
+                minBounds = thisBounds;
+        return minBounds;
+    }
+
+    public boolean areThereCombinations() {
+        return !(bounds.isEmpty());
+    }
+
+    /**
+     * Calculate the weight of the provided combination. Please note that the
+     * weight is not the same as the score that the user receives from this
+     * combination. Weight is a local comparing system used by the
+     * CombinationFinder to decide what is the greatest combination can be
+     * offered to the user.
+     *
+     * @since 0.4
+     *
+     * @param bounds  the bounds whose weight we want to know.
+     * @return  the weight for this combination
+     */
+    private static int getWeightForCombination(Bounds bounds) {
+        int cols = bounds.maxX - bounds.minX + 1;
+        int rows = bounds.maxY - bounds.minY + 1;
+        return cols * rows;
+    }
+}
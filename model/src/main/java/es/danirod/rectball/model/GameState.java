@@ -0,0 +1,449 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model;
+
+import es.danirod.rectball.model.solver.Solver;
+
+/**
+ * Information about a game. Usually the game we want information from is
+ * the game the player is currently playing. This data structure can contain
+ * information about score and time.
+ *
+ * @author danirod
+ */
+public class GameState {
+
+    /** The size of the board in a normal game. */
+    public static final int CLASSIC_SIZE = 6;
+
+    /**
+     * The size of the board in a marathon, a game played on a board so big
+     * that it has to be scrolled.
+     */
+    public static final int MARATHON_SIZE = 128;
+
+    private final Board board;
+
+    /** How much score and time the player earns. */
+    private ScoringRules rules = ScoringRules.DEFAULT;
+
+    /** Picks the combination shown by a hint, or null to pick any. */
+    private Solver hintSolver;
+
+    /**
+     * The seed for this game. Every random decision taken during the game
+     * comes from it, so a game can be played again given its seed and the
+     * moves the player made.
+     */
+    private long seed;
+
+    /**
+     * Random source for decisions taken by the game, such as the hint to
+     * show. The board is painted using its own stream, split from this one.
+     */
+    private RandomSource random;
+    /**
+     * The score. This data structure will provide methods to manually update
+     * the score or to add points to the value, which is what the user will
+     * usually do, actually.
+     */
+    private int score;
+    /**
+     * How many seconds has been the player playing. This is used to know how
+     * many seconds has the player lasted when the game is over. Every tick
+     * this value should be updated.
+     */
+    private float elapsedTime;
+
+    /**
+     * This is the remaining time. When reaches 0.
+     */
+    private float remainingTime;
+
+    public boolean isCountdownFinished() {
+        return countdownFinished;
+    }
+
+    public void setCountdownFinished(boolean countdownFinished) {
+        this.countdownFinished = countdownFinished;
+    }
+
+    /**
+     * Whether or not the countdown has finished on the game. If this variable
+     * is true, then the game has officially started. This is used when
+     * restoring the game to decide whether to display the countdown again or
+     * not.
+     */
+    private boolean countdownFinished;
+
+    public boolean isCheatSeen() {
+        return cheatSeen;
+    }
+
+    public void setCheatSeen(boolean cheatSeen) {
+        this.cheatSeen = cheatSeen;
+    }
+
+    /**
+     * These are the bounds selected when the user presses the Help button.
+     * They are cached so that the same bounds are always used. Otherwise,
+     * each time the user presses HELP without selecting a combination, a
+     * different one would be used.
+     */
+    private Bounds wiggledBounds;
+
+    public Bounds getWiggledBounds() {
+        return wiggledBounds;
+    }
+
+    public void setWiggledBounds(Bounds wiggledBounds) {
+        this.wiggledBounds = wiggledBounds;
+    }
+
+    /**
+     * Whether the player has seen the next combination. When the user presses
+     * the HELP button, a valid combination is displayed to help the player and
+     * some time is subtracted. To prevent happening this more than once,
+     * this variable will flag whether to subtract or not. It will be reset
+     * every time a new combination is made.
+     */
+    private boolean cheatSeen;
+
+    public boolean isPlaying() {
+        return playing;
+    }
+
+    public void setPlaying(boolean playing) {
+        this.playing = playing;
+    }
+
+    private boolean playing;
+
+    public boolean isTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(boolean timeout) {
+        this.timeout = timeout;
+    }
+
+    private boolean timeout;
+
+    /** Where was the board placed in the screen when the game was paused. */
+    private float boardX, boardY, boardWidth, boardHeight;
+
+    private LocalStatistics statistics;
+
+    public GameState() {
+        this(CLASSIC_SIZE);
+    }
+
+    public GameState(int boardSize) {
+        this(boardSize, BallColor.DEFAULT_COUNT);
+    }
+
+    /**
+     * @param boardSize the size of the board.
+     * @param colors    how many colors the balls can have, fewer colors
+     *                  make more combinations and an easier game.
+     */
+    public GameState(int boardSize, int colors) {
+        this.score = 0;
+        this.elapsedTime = 0;
+        this.remainingTime = GameTimer.SECONDS;
+        board = new Board(boardSize, colors);
+        setSeed(new SplitMix64().nextLong());
+
+        statistics = new LocalStatistics();
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public void addScore(int score) {
+        this.score += score;
+    }
+
+    public float getElapsedTime() {
+        return elapsedTime;
+    }
+
+    public void addTime(float time) {
+        this.elapsedTime += time;
+    }
+
+    public float getRemainingTime() {
+        return remainingTime;
+    }
+
+    public void setRemainingTime(float remainingTime) {
+        this.remainingTime = remainingTime;
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * @return whether this game is played on the classic board, so that it
+     * can be compared with other classic games.
+     */
+    public boolean isClassic() {
+        return board.getSize() == CLASSIC_SIZE && board.getColors() == BallColor.DEFAULT_COUNT;
+    }
+
+    public ScoringRules getRules() {
+        return rules;
+    }
+
+    public void setRules(ScoringRules rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Use a solver to pick the combination shown by a hint, so that the
+     * hint shows a good move instead of any move.
+     *
+     * @param hintSolver the solver, or null to show any combination.
+     */
+    public void setHintSolver(Solver hintSolver) {
+        this.hintSolver = hintSolver;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Start the random sources of this game from the given seed. This
+     * doesn't repaint the board, which will happen when the game is reset.
+     *
+     * @param seed the seed for the game
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        this.random = new SplitMix64(seed);
+        board.setRandom(random.split());
+    }
+
+    public RandomSource getRandom() {
+        return random;
+    }
+
+    /**
+     * Start a new game using a new random seed.
+     */
+    public void reset() {
+        reset(new SplitMix64().nextLong());
+    }
+
+    /**
+     * Start a new game using the given seed. Two games reset with the same
+     * seed will have the same board and will behave the same way as long as
+     * the player makes the same moves.
+     *
+     * @param seed the seed for the new game
+     */
+    public void reset(long seed) {
+        setSeed(seed);
+        elapsedTime = 0;
+        remainingTime = GameTimer.SECONDS;
+        score = 0;
+        wiggledBounds = null;
+        cheatSeen = false;
+        playing = false;
+        countdownFinished = false;
+        timeout = false;
+        resetBoard();
+        statistics = new LocalStatistics();
+    }
+
+    public LocalStatistics getLocalStatistics() {
+        return statistics;
+    }
+
+    public void incrementHints() {
+        statistics = statistics.incrementHint();
+    }
+
+    public void incrementCombinations(long width, long height, BallColor color, boolean isPerfect) {
+        statistics = statistics.incrementCombinations(width, height, color, isPerfect);
+    }
+
+    public void resetBoard() {
+        // Board.randomize() already retries until there is a combination.
+        board.randomize();
+    }
+
+    /**
+     * Check whether the given combination covers the entire board.
+     *
+     * @param bounds the bounds of the combination.
+     * @return true if the combination is a perfect.
+     */
+    public boolean isPerfect(Bounds bounds) {
+        int boardSize = board.getSize() - 1;
+        return bounds.equals(new Bounds(0, 0, boardSize, boardSize));
+    }
+
+    /**
+     * Give the score for a valid combination made by the player and put it
+     * in the stats. This has to be called before the combination is
+     * regenerated, because the score depends on the balls in the board.
+     *
+     * @param bounds the bounds of the combination.
+     * @return how much score has been given for the combination.
+     */
+    public int scoreCombination(Bounds bounds) {
+        boolean usedCheat = wiggledBounds != null;
+        if (usedCheat)
+            incrementHints();
+
+        int givenScore = new ScoreCalculator(board, bounds, rules).calculate();
+        if (usedCheat) {
+            givenScore *= rules.getHintMultiplier();
+        }
+        addScore(givenScore);
+
+        BallColor color = board.getColor(bounds.minX, bounds.minY);
+        incrementCombinations(bounds.cols(), bounds.rows(), color, isPerfect(bounds));
+        return givenScore;
+    }
+
+    /**
+     * How many seconds should be given to the player after a combination.
+     * A perfect fills the timer again.
+     *
+     * @param givenScore the score given for the combination.
+     * @param perfect whether the combination was a perfect.
+     * @param seconds how many seconds were there in the timer.
+     * @return how many seconds to give.
+     */
+    public float getTimeBonus(int givenScore, boolean perfect, float seconds) {
+        if (perfect) {
+            return GameTimer.SECONDS - seconds;
+        }
+        return rules.getTimeBonus() + givenScore / rules.getScorePerSecond();
+    }
+
+    /**
+     * Repaint the balls in the given region after a successful selection.
+     * If the only combination left in the board is the one that has just
+     * been regenerated, the balls must have the same color again, so the
+     * entire board is painted to avoid getting stuck on the same spot.
+     * The hint is also forgotten, since it's not valid anymore.
+     *
+     * @param bounds the region of the board to regenerate.
+     * @return true if the entire board had to be painted again.
+     */
+    public boolean regenerate(Bounds bounds) {
+        board.randomize(new Coordinate(bounds.minX, bounds.minY), new Coordinate(bounds.maxX, bounds.maxY));
+        cheatSeen = false;
+        wiggledBounds = null;
+
+        BoardAnalysis analysis = board.getAnalysis();
+        if (analysis.getCount() == 1 && analysis.getCombination().equals(bounds)) {
+            resetBoard();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Whether a hint can be shown. Once a hint has been shown it can be
+     * shown again, but a new hint is not shown if there is little time.
+     *
+     * @param seconds how many seconds are there in the timer.
+     * @return true if a hint can be shown.
+     */
+    public boolean canShowHint(float seconds) {
+        return wiggledBounds != null || seconds > rules.getHintMinSeconds();
+    }
+
+    /**
+     * Pick the combination to show as a hint. The same combination is used
+     * until the player makes a combination, no matter how many times the
+     * hint is requested.
+     *
+     * @return the bounds of the combination to show.
+     */
+    public Bounds showHint() {
+        if (wiggledBounds == null) {
+            if (hintSolver != null) {
+                wiggledBounds = hintSolver.solve(board, random.split()).getMove();
+            } else {
+                wiggledBounds = board.getAnalysis().pickCombination(random);
+            }
+        }
+        return wiggledBounds;
+    }
+
+    /**
+     * Take the penalty for seeing a hint. The penalty is only paid the
+     * first time the hint for a combination is seen.
+     *
+     * @return how many seconds have to be subtracted from the timer.
+     */
+    public float takeHintPenalty() {
+        if (cheatSeen) {
+            return 0f;
+        }
+        cheatSeen = true;
+        return rules.getHintPenalty();
+    }
+
+    /**
+     * Finish the game because the timer ran out. A combination is picked to
+     * show the player what could have been done, unless there is a hint
+     * already visible, which counts as used even if it wasn't made.
+     *
+     * @return the combination to show when the game is over.
+     */
+    public Bounds finish() {
+        if (wiggledBounds == null) {
+            wiggledBounds = board.getAnalysis().getCombination();
+        } else {
+            incrementHints();
+        }
+        timeout = true;
+        return wiggledBounds;
+    }
+
+    public void setBoardBounds(float x, float y, float width, float height) {
+        this.boardX = x;
+        this.boardY = y;
+        this.boardWidth = width;
+        this.boardHeight = height;
+    }
+
+    public float getBoardX() {
+        return boardX;
+    }
+
+    public float getBoardY() {
+        return boardY;
+    }
+
+    public float getBoardWidth() {
+        return boardWidth;
+    }
+
+    public float getBoardHeight() {
+        return boardHeight;
+    }
+}
@@ -0,0 +1,129 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model;
+
+/**
+ * The countdown of a game. When the timer reaches zero, the game is over.
+ * The timer decrements while it is running, and the player can earn more
+ * time by making combinations, although the timer never holds more time
+ * than its maximum.
+ *
+ * This holds the rules of the timer. It doesn't depend on the clock, so it
+ * has to be ticked with the time elapsed since the last tick, either by an
+ * actor every frame or by anything that simulates a game.
+ *
+ * @since 0.5
+ */
+public class GameTimer {
+
+    /** How many seconds there are in the timer when a game starts. */
+    public static final int SECONDS = 30;
+
+    /**
+     * The maximum number of seconds this timer can have. When filled with
+     * seconds, the value of the timer will always be clamped so that it's
+     * never bigger than this.
+     */
+    private final float maxSeconds;
+
+    /** How many seconds are there remaining until the timer runs out. */
+    private float seconds;
+
+    /** Whether the time is running or not. */
+    private boolean running = true;
+
+    /**
+     * Time that has been given to the timer but not added yet. Given time
+     * is added gradually, up to the given speed every tick.
+     */
+    private float pendingTime, pendingSpeed;
+
+    /**
+     * Set up a new timer.
+     *
+     * @param seconds the maximum seconds for this timer.
+     */
+    public GameTimer(float seconds) {
+        this.seconds = seconds;
+        this.maxSeconds = seconds;
+    }
+
+    public float getMaxSeconds() {
+        return maxSeconds;
+    }
+
+    public float getSeconds() {
+        return seconds;
+    }
+
+    /**
+     * Set the number of seconds of this timer to some value. The value will
+     * be clamped against the maximum number of seconds that the timer can
+     * hold.
+     *
+     * @param seconds new value of seconds for this timer.
+     */
+    public void setSeconds(float seconds) {
+        this.seconds = Math.min(seconds, maxSeconds);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public void setRunning(boolean running) {
+        this.running = running;
+    }
+
+    /**
+     * Give some time to the timer. The time is not added at once, but up to
+     * the given speed every time the timer ticks.
+     *
+     * @param time  how many seconds to give
+     * @param speed how many seconds can be given every tick
+     */
+    public void giveTime(float time, float speed) {
+        pendingTime += time;
+        pendingSpeed = speed;
+    }
+
+    /**
+     * Advance the timer.
+     *
+     * @param delta how many seconds have elapsed since the last tick
+     * @return true if the timer has run out of time
+     */
+    public boolean tick(float delta) {
+        if (running) {
+            seconds -= delta;
+        }
+
+        if (pendingTime > 0) {
+            float givenTime = Math.min(pendingTime, pendingSpeed);
+            pendingTime -= givenTime;
+            seconds += givenTime;
+        }
+
+        // Clamp the score both on max seconds and on min seconds.
+        seconds = Math.min(seconds, maxSeconds);
+        if (seconds < 0) {
+            seconds = 0;
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,120 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model;
+
+/**
+ * A game played without the game screen, such as a replay or a game played
+ * by a bot. It applies the same rules as the game screen: the timer runs
+ * while time passes, combinations give score and time, and hints take time.
+ *
+ * The game screen gives time to the timer gradually, while a headless game
+ * gives it at once.
+ *
+ * @since 0.5
+ */
+public class HeadlessGame {
+
+    private final GameState state;
+
+    private final GameTimer timer = new GameTimer(GameTimer.SECONDS);
+
+    public HeadlessGame(int boardSize, long seed) {
+        this(boardSize, seed, ScoringRules.DEFAULT);
+    }
+
+    public HeadlessGame(int boardSize, long seed, ScoringRules rules) {
+        this(boardSize, BallColor.DEFAULT_COUNT, seed, rules);
+    }
+
+    public HeadlessGame(int boardSize, int colors, long seed, ScoringRules rules) {
+        state = new GameState(boardSize, colors);
+        state.setRules(rules);
+        state.reset(seed);
+    }
+
+    public GameState getState() {
+        return state;
+    }
+
+    public GameTimer getTimer() {
+        return timer;
+    }
+
+    /**
+     * Let some time pass. If the timer runs out, the elapsed time of the
+     * game only counts until the timer ran out.
+     *
+     * @param delta how many seconds to let pass.
+     * @return how many seconds have passed since the timer ran out, or 0
+     * if there is still time in the timer.
+     */
+    public float advance(float delta) {
+        float seconds = timer.getSeconds();
+        if (timer.tick(delta)) {
+            state.addTime(seconds);
+            return delta - seconds;
+        }
+        state.addTime(delta);
+        return 0f;
+    }
+
+    /**
+     * Make a combination, giving the score and the time for it, and
+     * regenerate the board.
+     *
+     * @param bounds the bounds of the combination.
+     * @return the score given, or -1 if the bounds are not a combination.
+     */
+    public int select(Bounds bounds) {
+        if (!state.getBoard().isCombination(bounds))
+            return -1;
+        boolean perfect = state.isPerfect(bounds);
+        int givenScore = state.scoreCombination(bounds);
+        timer.setSeconds(timer.getSeconds() + state.getTimeBonus(givenScore, perfect, timer.getSeconds()));
+        state.regenerate(bounds);
+        return givenScore;
+    }
+
+    /**
+     * Press the help button, taking the time penalty the first time.
+     *
+     * @return the combination shown, or null if the rules don't allow it.
+     */
+    public Bounds hint() {
+        return hint(0f);
+    }
+
+    /**
+     * Press the help button, trusting that the timer of the game could have
+     * had some more seconds than this timer when the hint was requested.
+     *
+     * @param tolerance how many seconds may this timer be behind.
+     * @return the combination shown, or null if the rules don't allow it.
+     */
+    public Bounds hint(float tolerance) {
+        if (!state.canShowHint(timer.getSeconds() + tolerance))
+            return null;
+        Bounds bounds = state.showHint();
+        timer.setSeconds(timer.getSeconds() - state.takeHintPenalty());
+        return bounds;
+    }
+
+    /** Finish the game. */
+    public void finish() {
+        state.finish();
+    }
+}
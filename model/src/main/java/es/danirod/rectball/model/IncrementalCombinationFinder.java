@@ -0,0 +1,194 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A combination finder that keeps the combinations of a board up to date
+ * as the board changes. Instead of scanning the whole board again after a
+ * region is repainted, only the combinations having a corner in the region
+ * are removed, and only the combinations having a corner in the region are
+ * looked for again. The list of combinations is always the same, and in the
+ * same order, as the one a new {@link CombinationFinder} would return.
+ *
+ * @since 0.5
+ */
+public class IncrementalCombinationFinder {
+
+    /** The order used by CombinationFinder to list the combinations. */
+    private static final Comparator<Bounds> ORDER = new Comparator<Bounds>() {
+        @Override
+        public int compare(Bounds a, Bounds b) {
+            if (a.minY != b.minY) return Integer.compare(a.minY, b.minY);
+            if (a.minX != b.minX) return Integer.compare(a.minX, b.minX);
+            if (a.maxX != b.maxX) return Integer.compare(a.maxX, b.maxX);
+            return Integer.compare(a.maxY, b.maxY);
+        }
+    };
+
+    private final Board board;
+
+    private final List<Bounds> bounds = new ArrayList<>();
+
+    private final List<Bounds> added = new ArrayList<>();
+
+    public IncrementalCombinationFinder(Board board) {
+        this.board = board;
+        rebuild();
+    }
+
+    /**
+     * Scan the whole board again. This has to be used when the board has
+     * changed in a way that cannot be described by a single region.
+     */
+    public void rebuild() {
+        bounds.clear();
+        bounds.addAll(CombinationFinder.create(board).getPossibleBounds());
+    }
+
+    /**
+     * Update the combinations after the colors of some balls have changed.
+     * Every ball that has changed must be inside the given region, although
+     * the region may include balls that haven't changed.
+     *
+     * @param region the region of the board that has been changed.
+     */
+    public void update(Bounds region) {
+        // Remove the combinations that had a corner in the changed region.
+        int kept = 0;
+        for (int i = 0; i < bounds.size(); i++) {
+            Bounds candidate = bounds.get(i);
+            if (!hasCornerIn(candidate, region)) {
+                bounds.set(kept++, candidate);
+            }
+        }
+        bounds.subList(kept, bounds.size()).clear();
+
+        // Look for new combinations having a corner in the changed region.
+        added.clear();
+        for (int y = region.minY; y <= region.maxY; y++) {
+            for (int x = region.minX; x <= region.maxX; x++) {
+                findCombinationsFrom(x, y, region);
+            }
+        }
+
+        if (!added.isEmpty()) {
+            added.sort(ORDER);
+            merge();
+        }
+    }
+
+    /**
+     * Merge the added combinations into the kept ones. Both lists are
+     * sorted and have nothing in common, so they are merged from the end,
+     * moving every kept combination at most once.
+     */
+    private void merge() {
+        int kept = bounds.size() - 1;
+        int next = added.size() - 1;
+        for (int i = 0; i < added.size(); i++)
+            bounds.add(null);
+        int last = bounds.size() - 1;
+        while (next >= 0) {
+            if (kept >= 0 && ORDER.compare(bounds.get(kept), added.get(next)) > 0) {
+                bounds.set(last--, bounds.get(kept--));
+            } else {
+                bounds.set(last--, added.get(next--));
+            }
+        }
+    }
+
+    /**
+     * Add every combination that has a corner in the given ball. To avoid
+     * adding the same combination twice when more than a corner is in the
+     * region, combinations are only added when this ball is the first of
+     * their corners inside the region.
+     */
+    private void findCombinationsFrom(int x, int y, Bounds region) {
+        BitBoard bits = board.getBitBoard();
+        int color = bits.getColor(x, y);
+        if (color == BitBoard.EMPTY)
+            return;
+        int size = bits.getSize();
+        int words = bits.getWordsPerRow();
+        int word = x >>> 6;
+        long bit = 1L << x;
+
+        for (int other = 0; other < size; other++) {
+            // The ball in the same column of the other row has to match.
+            if (other == y || (bits.getRow(color, other, word) & bit) == 0)
+                continue;
+            for (int w = 0; w < words; w++) {
+                long columns = bits.getRow(color, y, w) & bits.getRow(color, other, w);
+                if (w == word)
+                    columns &= ~bit;
+                while (columns != 0) {
+                    int col = (w << 6) + Long.numberOfTrailingZeros(columns);
+                    columns &= columns - 1;
+                    int minX = Math.min(x, col), maxX = Math.max(x, col);
+                    int minY = Math.min(y, other), maxY = Math.max(y, other);
+                    if (isFirstCornerIn(region, minX, minY, maxX, maxY, x, y)) {
+                        added.add(new Bounds(minX, minY, maxX, maxY));
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean hasCornerIn(Bounds bounds, Bounds region) {
+        boolean col = isBetween(bounds.minX, region.minX, region.maxX)
+                || isBetween(bounds.maxX, region.minX, region.maxX);
+        boolean row = isBetween(bounds.minY, region.minY, region.maxY)
+                || isBetween(bounds.maxY, region.minY, region.maxY);
+        return col && row;
+    }
+
+    private static boolean isBetween(int value, int min, int max) {
+        return value >= min && value <= max;
+    }
+
+    /**
+     * Corners are tested in the same order as update() visits the balls
+     * of the region, that is, bottom row before top row and left column
+     * before right column.
+     */
+    private static boolean isFirstCornerIn(Bounds region, int minX, int minY, int maxX, int maxY, int x, int y) {
+        if (region.inBounds(minX, minY))
+            return x == minX && y == minY;
+        if (region.inBounds(maxX, minY))
+            return x == maxX && y == minY;
+        if (region.inBounds(minX, maxY))
+            return x == minX && y == maxY;
+        return x == maxX && y == maxY;
+    }
+
+    public List<Bounds> getPossibleBounds() {
+        return Collections.unmodifiableList(bounds);
+    }
+
+    public Bounds getCombination() {
+        return bounds.isEmpty() ? null : bounds.get(0);
+    }
+
+    public boolean areThereCombinations() {
+        return !bounds.isEmpty();
+    }
+}
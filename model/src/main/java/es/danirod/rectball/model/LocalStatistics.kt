@@ -14,19 +14,24 @@
  * You should have received a copy of the GNU General Public License
  * along with this program.  If not, see <https://www.gnu.org/licenses/>.
  */
-package es.danirod.rectball.settings
-
-import es.danirod.rectball.model.BallColor
+package es.danirod.rectball.model
 
 data class LocalStatistics(
     val hints: Long = 0L,
     val gems: Long = 0L,
     val combinations: Long = 0L,
     val perfects: Long = 0L,
-    val byColor: Map<String, Long> = mapOf(),
+    /** Combinations made with every color, indexed by the ordinal of the color. */
+    val colorCounts: LongArray = LongArray(BallColor.MAX_COUNT),
     val bySize: Map<String, Long> = mapOf(),
 ) {
 
+    /** Combinations made with every color used in the game, by color name. */
+    val byColor: Map<String, Long>
+        get() = BallColor.entries
+            .filter { colorCounts[it.ordinal] > 0 }
+            .associate { it.name.lowercase() to colorCounts[it.ordinal] }
+
     fun incrementHint() = copy(hints = hints + 1)
 
     fun incrementCombinations(width: Long, height: Long, color: BallColor, isPerfect: Boolean) =
@@ -34,19 +39,19 @@ data class LocalStatistics(
             gems = this.gems + (width * height),
             combinations = combinations + 1,
             perfects = perfects + (if (isPerfect) 1 else 0),
-            byColor = mergeColorMap(color),
+            colorCounts = colorCounts.copyOf().apply { this[color.ordinal]++ },
             bySize = mergeSizeMap(width, height),
         )
 
-    private fun mergeColorMap(color: BallColor): Map<String, Long> {
-        val key = color.name.lowercase()
-        val oldValue: Long = byColor[key] ?: 0
-        return byColor.toMutableMap().apply { this[key] = oldValue + 1L }
-    }
-
     private fun mergeSizeMap(width: Long, height: Long): Map<String, Long> {
         val key = listOf(width, height).sorted().joinToString("x")
         val oldValue: Long = bySize[key] ?: 0
         return bySize.toMutableMap().apply { this[key] = oldValue + 1L }
     }
+
+    override fun equals(other: Any?) = other is LocalStatistics &&
+        hints == other.hints && gems == other.gems && combinations == other.combinations &&
+        perfects == other.perfects && colorCounts.contentEquals(other.colorCounts) && bySize == other.bySize
+
+    override fun hashCode() = listOf(hints, gems, combinations, perfects, colorCounts.contentHashCode(), bySize).hashCode()
 }
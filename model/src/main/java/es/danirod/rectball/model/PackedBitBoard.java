@@ -0,0 +1,75 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model;
+
+import java.util.Arrays;
+
+/**
+ * Bitboard for boards small enough to fit a whole color in a single long.
+ * Cell (x, y) is stored in bit (y * size + x), so a 6x6 board takes 36 bits
+ * per color and every row is a contiguous run of bits.
+ */
+class PackedBitBoard extends BitBoard {
+
+    private final long[] masks;
+
+    private final long rowMask;
+
+    PackedBitBoard(int size, int colors) {
+        super(size, colors);
+        this.masks = new long[colors];
+        this.rowMask = (1L << size) - 1;
+    }
+
+    @Override
+    public void setColor(int x, int y, int color) {
+        long bit = 1L << (y * size + x);
+        int cell = y * size + x;
+        for (int c = 0; c < colors; c++) {
+            if ((masks[c] & bit) != 0) {
+                masks[c] &= ~bit;
+                hash ^= zobrist(cell, c);
+            }
+        }
+        if (color != EMPTY) {
+            masks[color] |= bit;
+            hash ^= zobrist(cell, color);
+        }
+    }
+
+    @Override
+    public boolean test(int color, int x, int y) {
+        return (masks[color] & (1L << (y * size + x))) != 0;
+    }
+
+    @Override
+    public long getRow(int color, int y, int word) {
+        return (masks[color] >>> (y * size)) & rowMask;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(masks, 0L);
+        hash = 0;
+    }
+
+    @Override
+    public void copyFrom(BitBoard other) {
+        System.arraycopy(((PackedBitBoard) other).masks, 0, masks, 0, masks.length);
+        hash = other.hash;
+    }
+}
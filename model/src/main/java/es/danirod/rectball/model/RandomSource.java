@@ -0,0 +1,55 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model;
+
+/**
+ * A source of random numbers. Everything that has to be random during a
+ * game asks one of these, so that a game can be played again by using a
+ * source that starts with the same seed.
+ *
+ * Sources can be split, so that every part of the game, or every worker
+ * of a simulation, gets its own stream of numbers that is independent of
+ * the others but still reproducible.
+ *
+ * @since 0.5
+ */
+public interface RandomSource {
+
+    /**
+     * @return a random long, every value is equally likely.
+     */
+    long nextLong();
+
+    /**
+     * @param bound the upper bound, exclusive. Must be positive.
+     * @return a random integer between 0 (inclusive) and bound (exclusive).
+     */
+    int nextInt(int bound);
+
+    /**
+     * @return a random float between 0 (inclusive) and 1 (exclusive).
+     */
+    float nextFloat();
+
+    /**
+     * Create a new source whose numbers are independent of the numbers of
+     * this one. This advances this source, so splitting is deterministic.
+     *
+     * @return a new random source.
+     */
+    RandomSource split();
+}
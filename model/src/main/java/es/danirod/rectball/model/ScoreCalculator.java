@@ -24,47 +24,56 @@ package es.danirod.rectball.model;
  */
 public class ScoreCalculator {
 
-    private CombinationFinder finder;
+    private BoardAnalysis analysis;
 
     private Bounds bounds;
 
     private Board board;
 
+    private ScoringRules rules;
+
     public ScoreCalculator(Board board, Bounds bounds) {
+        this(board, bounds, ScoringRules.DEFAULT);
+    }
+
+    public ScoreCalculator(Board board, Bounds bounds, ScoringRules rules) {
         this.bounds = bounds;
         this.board = board;
-        this.finder = CombinationFinder.create(board);
+        this.rules = rules;
+        this.analysis = board.getAnalysis();
     }
 
     public int calculate() {
+        return calculate(bounds, analysis.getBestCombination(), analysis.getCount(), board.getSize(), rules);
+    }
+
+    /**
+     * Calculate the score of a combination without looking at the board,
+     * given the facts about the board that the score depends on.
+     *
+     * @param bounds    the combination to score.
+     * @param best      the best combination of the board.
+     * @param count     how many combinations there are in the board.
+     * @param boardSize the size of the board.
+     * @param rules     the rules used to score the combination.
+     * @return the score of the combination.
+     */
+    public static int calculate(Bounds bounds, Bounds best, int count, int boardSize, ScoringRules rules) {
         int rows = bounds.maxY - bounds.minY + 1;
         int cols = bounds.maxX - bounds.minX + 1;
         int score = rows * cols;
 
         // Is this the best combination of all the possible ones?
-        if (finder.getBestCombination().equals(bounds)) {
-            int possibleCombinations = finder.getPossibleBounds().size();
-            switch (possibleCombinations) {
-                case 1:
-                    // For a single one, no bonus is given.
-                    break;
-                case 2:
-                    score = Math.round((float) score * 1.1f);
-                    break;
-                case 3:
-                    score = Math.round((float) score * 1.2f);
-                    break;
-                default:
-                    score = Math.round((float) score * 1.3f);
-                    break;
-            }
+        // The more combinations there are, the bigger the bonus is.
+        if (best.equals(bounds)) {
+            score = Math.round((float) score * rules.getBestMultiplier(count));
         }
 
         // In fact, does this combination use the entire board?
         if (bounds.minX == 0 && bounds.minY == 0
-                && bounds.maxX == board.getSize() - 1 && bounds.maxY == board.getSize() - 1) {
+                && bounds.maxX == boardSize - 1 && bounds.maxY == boardSize - 1) {
             // Yes, make that another bonus.
-            score = Math.round((float) score * 1.5f);
+            score = Math.round((float) score * rules.getPerfectMultiplier());
         }
 
         return score;
@@ -0,0 +1,144 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model;
+
+/**
+ * The numbers that decide how much score and time the player earns. These
+ * are the knobs to balance the game, so they are kept together instead of
+ * being hardcoded where they are used. Rules are immutable; the with
+ * methods return a copy with one of the values changed.
+ *
+ * @since 0.5
+ */
+public final class ScoringRules {
+
+    /** The rules of the game as it is shipped. */
+    public static final ScoringRules DEFAULT = new ScoringRules(
+            new float[] {1f, 1.1f, 1.2f, 1.3f}, 1.5f, 0.75f, 4f, 10f, 5f, 5f);
+
+    /**
+     * Multiplier for the best combination, indexed by the number of
+     * combinations in the board minus one. The last value is used when
+     * there are more combinations than values.
+     */
+    private final float[] bestMultipliers;
+
+    /** Multiplier for a combination that uses the entire board. */
+    private final float perfectMultiplier;
+
+    /** Multiplier for a combination that has been shown by a hint. */
+    private final float hintMultiplier;
+
+    /** Seconds given for every combination. */
+    private final float timeBonus;
+
+    /**
+     * Points of score of a combination needed to earn one more second. It
+     * is a divisor instead of a factor so that the default rules give
+     * exactly the same seconds as the game always did, score / 10.
+     */
+    private final float scorePerSecond;
+
+    /** Seconds subtracted the first time a hint is shown. */
+    private final float hintPenalty;
+
+    /** A new hint is not shown when there are less seconds than this. */
+    private final float hintMinSeconds;
+
+    public ScoringRules(float[] bestMultipliers, float perfectMultiplier, float hintMultiplier,
+                        float timeBonus, float scorePerSecond, float hintPenalty, float hintMinSeconds) {
+        if (bestMultipliers.length == 0)
+            throw new IllegalArgumentException("At least one multiplier is required");
+        if (scorePerSecond <= 0)
+            throw new IllegalArgumentException("The score per second must be positive");
+        this.bestMultipliers = bestMultipliers.clone();
+        this.perfectMultiplier = perfectMultiplier;
+        this.hintMultiplier = hintMultiplier;
+        this.timeBonus = timeBonus;
+        this.scorePerSecond = scorePerSecond;
+        this.hintPenalty = hintPenalty;
+        this.hintMinSeconds = hintMinSeconds;
+    }
+
+    /**
+     * Get the multiplier for the best combination of a board.
+     *
+     * @param combinations how many combinations are there in the board.
+     * @return the multiplier.
+     */
+    public float getBestMultiplier(int combinations) {
+        int index = Math.max(0, Math.min(combinations, bestMultipliers.length) - 1);
+        return bestMultipliers[index];
+    }
+
+    /**
+     * @return a copy of the multipliers for the best combination, indexed
+     * by the number of combinations in the board minus one.
+     */
+    public float[] getBestMultipliers() {
+        return bestMultipliers.clone();
+    }
+
+    public float getPerfectMultiplier() {
+        return perfectMultiplier;
+    }
+
+    public float getHintMultiplier() {
+        return hintMultiplier;
+    }
+
+    public float getTimeBonus() {
+        return timeBonus;
+    }
+
+    public float getScorePerSecond() {
+        return scorePerSecond;
+    }
+
+    public float getHintPenalty() {
+        return hintPenalty;
+    }
+
+    public float getHintMinSeconds() {
+        return hintMinSeconds;
+    }
+
+    public ScoringRules withBestMultipliers(float... bestMultipliers) {
+        return new ScoringRules(bestMultipliers, perfectMultiplier, hintMultiplier,
+                timeBonus, scorePerSecond, hintPenalty, hintMinSeconds);
+    }
+
+    public ScoringRules withPerfectMultiplier(float perfectMultiplier) {
+        return new ScoringRules(bestMultipliers, perfectMultiplier, hintMultiplier,
+                timeBonus, scorePerSecond, hintPenalty, hintMinSeconds);
+    }
+
+    public ScoringRules withHintMultiplier(float hintMultiplier) {
+        return new ScoringRules(bestMultipliers, perfectMultiplier, hintMultiplier,
+                timeBonus, scorePerSecond, hintPenalty, hintMinSeconds);
+    }
+
+    public ScoringRules withTimeBonus(float timeBonus, float scorePerSecond) {
+        return new ScoringRules(bestMultipliers, perfectMultiplier, hintMultiplier,
+                timeBonus, scorePerSecond, hintPenalty, hintMinSeconds);
+    }
+
+    public ScoringRules withHintPenalty(float hintPenalty) {
+        return new ScoringRules(bestMultipliers, perfectMultiplier, hintMultiplier,
+                timeBonus, scorePerSecond, hintPenalty, hintMinSeconds);
+    }
+}
@@ -16,13 +16,16 @@
  */
 package es.danirod.rectball.model;
 
-import java.util.*;
+import java.util.List;
 
 class Selection {
 
+    private final BitBoard bits;
+
     private final List<Ball> balls;
 
-    public Selection(List<Ball> balls) {
+    public Selection(BitBoard bits, List<Ball> balls) {
+        this.bits = bits;
         this.balls = balls;
     }
 
@@ -32,9 +35,13 @@ class Selection {
      * @return true unless there is a single ball having a different color.
      */
     public boolean checkSameColor() {
-        BallColor reference = balls.get(0).getColor();
+        Ball first = balls.get(0);
+        int reference = bits.getColor(first.getX(), first.getY());
+        if (reference == BitBoard.EMPTY) {
+            return false;
+        }
         for (Ball ball : balls) {
-            if (reference != ball.getColor()) {
+            if (!bits.test(reference, ball.getX(), ball.getY())) {
                 return false;
             }
         }
@@ -47,15 +54,27 @@ class Selection {
      * @return true if the selection forms a square.
      */
     public boolean checkSquare() {
-        // Put the coordinate values into two sets, one for rows and another
-        // one for columns. To be a valid rectangle there should be two rows
-        // (upper row and bottom row) and two columns (left and right col).
-        Set<Integer> rows = new HashSet<>();
-        Set<Integer> cols = new HashSet<>();
+        // To be a valid rectangle there should be two rows (upper row and
+        // bottom row) and two columns (left and right col). Every ball must
+        // be placed either in the min or in the max row and column.
+        int minX, minY, maxX, maxY;
+        minX = minY = Integer.MAX_VALUE;
+        maxX = maxY = Integer.MIN_VALUE;
+        for (Ball ball : balls) {
+            minX = Math.min(minX, ball.getX());
+            minY = Math.min(minY, ball.getY());
+            maxX = Math.max(maxX, ball.getX());
+            maxY = Math.max(maxY, ball.getY());
+        }
+        if (minX == maxX || minY == maxY) {
+            return false;
+        }
         for (Ball ball : balls) {
-            rows.add(ball.getY());
-            cols.add(ball.getX());
+            if (ball.getX() != minX && ball.getX() != maxX)
+                return false;
+            if (ball.getY() != minY && ball.getY() != maxY)
+                return false;
         }
-        return rows.size() == 2 && cols.size() == 2;
+        return true;
     }
 }
@@ -0,0 +1,99 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model;
+
+/**
+ * A fast random source based on the SplitMix64 algorithm, the same one
+ * that the JDK uses for SplittableRandom. It only holds two longs, so it
+ * is cheap to create and to split, and the same seed always produces the
+ * same numbers on every platform.
+ *
+ * @since 0.5
+ */
+public final class SplitMix64 implements RandomSource {
+
+    static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /** Used to seed the sources that are created without a seed. */
+    private static long defaultSeed = mix64(System.currentTimeMillis() ^ System.nanoTime());
+
+    private long seed;
+
+    private final long gamma;
+
+    /** Create a source with a seed that is different every time. */
+    public SplitMix64() {
+        this(nextDefaultSeed());
+    }
+
+    public SplitMix64(long seed) {
+        this(seed, GOLDEN_GAMMA);
+    }
+
+    private SplitMix64(long seed, long gamma) {
+        this.seed = seed;
+        this.gamma = gamma;
+    }
+
+    private static synchronized long nextDefaultSeed() {
+        defaultSeed += 2 * GOLDEN_GAMMA;
+        return mix64(defaultSeed);
+    }
+
+    private long nextSeed() {
+        return seed += gamma;
+    }
+
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /** The gamma of a new source must be odd and have enough bits set. */
+    private static long mixGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        int n = Long.bitCount(z ^ (z >>> 1));
+        return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+
+    @Override
+    public long nextLong() {
+        return mix64(nextSeed());
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0)
+            throw new IllegalArgumentException("bound must be positive");
+        // Multiply and shift instead of modulo (Lemire), the bias for the
+        // small bounds used in the game is negligible.
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    @Override
+    public float nextFloat() {
+        return (nextLong() >>> 40) * 0x1.0p-24f;
+    }
+
+    @Override
+    public RandomSource split() {
+        return new SplitMix64(nextLong(), mixGamma(nextSeed()));
+    }
+}
@@ -0,0 +1,80 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model;
+
+import java.util.Arrays;
+
+/**
+ * Bitboard for boards that don't fit in a single long per color. Every row
+ * of every color uses as many words as required to hold the row, so a row
+ * of a 128x128 board takes two longs per color.
+ */
+class WideBitBoard extends BitBoard {
+
+    private final int words;
+
+    /** Masks indexed by color, then row, then word. */
+    private final long[] masks;
+
+    WideBitBoard(int size, int colors) {
+        super(size, colors);
+        this.words = getWordsPerRow();
+        this.masks = new long[colors * size * words];
+    }
+
+    private int index(int color, int x, int y) {
+        return (color * size + y) * words + (x >>> 6);
+    }
+
+    @Override
+    public void setColor(int x, int y, int color) {
+        long bit = 1L << x;
+        int cell = y * size + x;
+        for (int c = 0; c < colors; c++) {
+            if ((masks[index(c, x, y)] & bit) != 0) {
+                masks[index(c, x, y)] &= ~bit;
+                hash ^= zobrist(cell, c);
+            }
+        }
+        if (color != EMPTY) {
+            masks[index(color, x, y)] |= bit;
+            hash ^= zobrist(cell, color);
+        }
+    }
+
+    @Override
+    public boolean test(int color, int x, int y) {
+        return (masks[index(color, x, y)] & (1L << x)) != 0;
+    }
+
+    @Override
+    public long getRow(int color, int y, int word) {
+        return masks[(color * size + y) * words + word];
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(masks, 0L);
+        hash = 0;
+    }
+
+    @Override
+    public void copyFrom(BitBoard other) {
+        System.arraycopy(((WideBitBoard) other).masks, 0, masks, 0, masks.length);
+        hash = other.hash;
+    }
+}
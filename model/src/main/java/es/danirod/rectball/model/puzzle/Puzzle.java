@@ -0,0 +1,124 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model.puzzle;
+
+import es.danirod.rectball.model.BallColor;
+import es.danirod.rectball.model.Board;
+import es.danirod.rectball.model.BoardAnalysis;
+import es.danirod.rectball.model.BoardSymmetry;
+import es.danirod.rectball.model.Bounds;
+import es.danirod.rectball.model.ScoreCalculator;
+import es.danirod.rectball.model.ScoringRules;
+
+/**
+ * A board saved as a puzzle, together with how many combinations it has and
+ * the score of its best move. Puzzles are kept in their canonical form, so
+ * two puzzles that are the same board rotated, reflected or recolored are
+ * equal and have the same key.
+ *
+ * @since 0.5
+ */
+public final class Puzzle {
+
+    private final int size;
+
+    private final int colors;
+
+    /** The ordinal of the color of every cell, row by row. */
+    private final byte[] cells;
+
+    private final int combinations;
+
+    private final int optimalScore;
+
+    private final long key;
+
+    Puzzle(int size, int colors, byte[] cells, int combinations, int optimalScore) {
+        this.size = size;
+        this.colors = colors;
+        this.cells = cells;
+        this.combinations = combinations;
+        this.optimalScore = optimalScore;
+        this.key = BoardSymmetry.canonicalKey(toBoard());
+    }
+
+    /**
+     * Make a puzzle out of a board.
+     *
+     * @param board the board, which must have every cell painted. It is not
+     *              changed.
+     * @param rules the rules used to score its best move.
+     * @return the puzzle, in canonical form.
+     */
+    public static Puzzle of(Board board, ScoringRules rules) {
+        Board canonical = BoardSymmetry.canonicalForm(board);
+        int size = canonical.getSize();
+        byte[] cells = new byte[size * size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                BallColor color = canonical.getColor(x, y);
+                if (color == null)
+                    throw new IllegalArgumentException("The board has empty cells");
+                cells[y * size + x] = (byte) color.ordinal();
+            }
+        }
+        BoardAnalysis analysis = canonical.getAnalysis();
+        Bounds best = analysis.getBestCombination();
+        int score = best == null ? 0 : ScoreCalculator.calculate(best, best, analysis.getCount(), size, rules);
+        return new Puzzle(size, canonical.getColors(), cells, analysis.getCount(), score);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /** @return how many colors the balls of the puzzle can have. */
+    public int getColors() {
+        return colors;
+    }
+
+    /** @return the ordinal of the color of a cell. */
+    public int getColor(int x, int y) {
+        return cells[y * size + x];
+    }
+
+    public int getCombinations() {
+        return combinations;
+    }
+
+    /** @return the score of the best move of the puzzle. */
+    public int getOptimalScore() {
+        return optimalScore;
+    }
+
+    /** @return the canonical key of the board of this puzzle. */
+    public long getKey() {
+        return key;
+    }
+
+    /** @return a new board with the balls of this puzzle. */
+    public Board toBoard() {
+        Board board = new Board(size, colors);
+        BallColor[] colors = BallColor.values();
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                board.setColor(x, y, colors[cells[y * size + x]]);
+            }
+        }
+        return board;
+    }
+}
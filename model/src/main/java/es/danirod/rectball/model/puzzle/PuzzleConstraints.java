@@ -0,0 +1,130 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model.puzzle;
+
+import es.danirod.rectball.model.Board;
+import es.danirod.rectball.model.BoardAnalysis;
+import es.danirod.rectball.model.Bounds;
+
+/**
+ * What a generated puzzle has to look like. Constraints are immutable, use
+ * the with methods to get constraints with a different value, starting from
+ * {@link #ANY}.
+ *
+ * @since 0.5
+ */
+public final class PuzzleConstraints {
+
+    /** Any board with at least one combination. */
+    public static final PuzzleConstraints ANY = new PuzzleConstraints(-1, false, 0, -1, 0);
+
+    private final int combinations;
+
+    private final boolean perfect;
+
+    private final int minBestArea;
+
+    private final int optimalScore;
+
+    private final int tolerance;
+
+    private PuzzleConstraints(int combinations, boolean perfect, int minBestArea, int optimalScore, int tolerance) {
+        this.combinations = combinations;
+        this.perfect = perfect;
+        this.minBestArea = minBestArea;
+        this.optimalScore = optimalScore;
+        this.tolerance = tolerance;
+    }
+
+    /** @return how many combinations the board must have, or -1 for any. */
+    public int getCombinations() {
+        return combinations;
+    }
+
+    /** @return true if the whole board must be a combination. */
+    public boolean isPerfect() {
+        return perfect;
+    }
+
+    /** @return the minimum area of the best combination. */
+    public int getMinBestArea() {
+        return minBestArea;
+    }
+
+    /** @return the score the best move must make, or -1 for any. */
+    public int getOptimalScore() {
+        return optimalScore;
+    }
+
+    /** @return how far from the optimal score the best move can be. */
+    public int getTolerance() {
+        return tolerance;
+    }
+
+    public PuzzleConstraints withCombinations(int combinations) {
+        if (combinations < 1)
+            throw new IllegalArgumentException("A puzzle needs at least one combination");
+        return new PuzzleConstraints(combinations, perfect, minBestArea, optimalScore, tolerance);
+    }
+
+    public PuzzleConstraints withPerfect(boolean perfect) {
+        return new PuzzleConstraints(combinations, perfect, minBestArea, optimalScore, tolerance);
+    }
+
+    public PuzzleConstraints withMinBestArea(int minBestArea) {
+        return new PuzzleConstraints(combinations, perfect, minBestArea, optimalScore, tolerance);
+    }
+
+    public PuzzleConstraints withOptimalScore(int optimalScore, int tolerance) {
+        if (optimalScore < 1 || tolerance < 0)
+            throw new IllegalArgumentException("Invalid optimal score");
+        return new PuzzleConstraints(combinations, perfect, minBestArea, optimalScore, tolerance);
+    }
+
+    /**
+     * How far a board is from meeting these constraints. The generator
+     * keeps the changes that don't make it bigger, until it is zero.
+     *
+     * @param count     how many combinations the board has.
+     * @param bestArea  the area of the best combination, 0 if there is none.
+     * @param score     the score of the best move, 0 if there is none.
+     * @param isPerfect whether the whole board is a combination.
+     * @return zero if the board meets the constraints.
+     */
+    int distance(int count, int bestArea, int score, boolean isPerfect) {
+        int distance = count == 0 ? 1 : 0;
+        if (combinations >= 0)
+            distance += Math.abs(count - combinations);
+        if (perfect && !isPerfect)
+            distance += 1;
+        distance += Math.max(0, minBestArea - bestArea);
+        if (optimalScore >= 0)
+            distance += Math.max(0, Math.abs(score - optimalScore) - tolerance);
+        return distance;
+    }
+
+    /** @return true if a puzzle meets these constraints. */
+    public boolean accepts(Puzzle puzzle) {
+        Board board = puzzle.toBoard();
+        int size = board.getSize();
+        BoardAnalysis analysis = board.getAnalysis();
+        Bounds best = analysis.getBestCombination();
+        int area = best == null ? 0 : (best.maxX - best.minX + 1) * (best.maxY - best.minY + 1);
+        boolean isPerfect = board.isCombination(new Bounds(0, 0, size - 1, size - 1));
+        return distance(analysis.getCount(), area, puzzle.getOptimalScore(), isPerfect) == 0;
+    }
+}
@@ -0,0 +1,182 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model.puzzle;
+
+import es.danirod.rectball.model.BallColor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Binary format for puzzle packs. Every puzzle of a pack has the same board
+ * size and number of colors. A pack file looks like this:
+ *
+ * <pre>
+ * magic      "RBP"
+ * version    1 byte
+ * board size varint
+ * colors     varint
+ * count      varint
+ * puzzles    count times:
+ *   cells          the color of every cell, row by row
+ *   combinations   varint
+ *   optimal score  varint
+ * </pre>
+ *
+ * Cells are packed with as few bits as the number of colors requires, the
+ * first cell in the lowest bits, and padded to a whole byte. With four
+ * colors a 6x6 board takes nine bytes, and a whole puzzle about twelve.
+ *
+ * @since 0.5
+ */
+public final class PuzzleFormat {
+
+    private static final byte[] MAGIC = {'R', 'B', 'P'};
+
+    private static final int VERSION = 1;
+
+    private static final int MAX_SIZE = 256;
+
+    private PuzzleFormat() {
+
+    }
+
+    public static byte[] encode(List<Puzzle> puzzles) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + puzzles.size() * 12);
+        try {
+            write(puzzles, out);
+        } catch (IOException e) {
+            // Cannot happen when writing to memory.
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public static List<Puzzle> decode(byte[] data) throws IOException {
+        return read(new ByteArrayInputStream(data));
+    }
+
+    public static void write(List<Puzzle> puzzles, OutputStream out) throws IOException {
+        int size = puzzles.isEmpty() ? 0 : puzzles.get(0).getSize();
+        int colors = puzzles.isEmpty() ? BallColor.DEFAULT_COUNT : puzzles.get(0).getColors();
+        int bits = bitsPerCell(colors);
+        out.write(MAGIC);
+        out.write(VERSION);
+        writeVarint(out, size);
+        writeVarint(out, colors);
+        writeVarint(out, puzzles.size());
+
+        byte[] cells = new byte[(size * size * bits + 7) / 8];
+        for (Puzzle puzzle : puzzles) {
+            if (puzzle.getSize() != size || puzzle.getColors() != colors)
+                throw new IllegalArgumentException("Every puzzle of a pack must have the same size and colors");
+            Arrays.fill(cells, (byte) 0);
+            for (int i = 0; i < size * size; i++) {
+                int color = puzzle.getColor(i % size, i / size);
+                int bit = i * bits;
+                cells[bit >>> 3] |= (byte) (color << (bit & 7));
+                if ((bit & 7) + bits > 8)
+                    cells[(bit >>> 3) + 1] |= (byte) (color >>> (8 - (bit & 7)));
+            }
+            out.write(cells);
+            writeVarint(out, puzzle.getCombinations());
+            writeVarint(out, puzzle.getOptimalScore());
+        }
+    }
+
+    public static List<Puzzle> read(InputStream in) throws IOException {
+        for (byte b : MAGIC) {
+            if (in.read() != b)
+                throw new IOException("Not a puzzle pack");
+        }
+        int version = in.read();
+        if (version != VERSION)
+            throw new IOException("Unsupported puzzle pack version " + version);
+        int size = readInt(in, MAX_SIZE);
+        int colors = readInt(in, BallColor.MAX_COUNT);
+        int count = readInt(in, Integer.MAX_VALUE);
+        if (colors < BallColor.MIN_COUNT || (count > 0 && size < 2))
+            throw new IOException("Invalid puzzle pack header");
+        int bits = bitsPerCell(colors);
+
+        byte[] packed = new byte[(size * size * bits + 7) / 8];
+        List<Puzzle> puzzles = new ArrayList<>(Math.min(count, 1 << 16));
+        for (int p = 0; p < count; p++) {
+            readFully(in, packed);
+            byte[] cells = new byte[size * size];
+            for (int i = 0; i < cells.length; i++) {
+                int bit = i * bits;
+                int value = (packed[bit >>> 3] & 0xFF) >>> (bit & 7);
+                if ((bit & 7) + bits > 8)
+                    value |= (packed[(bit >>> 3) + 1] & 0xFF) << (8 - (bit & 7));
+                value &= (1 << bits) - 1;
+                if (value >= colors)
+                    throw new IOException("Unknown color " + value);
+                cells[i] = (byte) value;
+            }
+            int combinations = readInt(in, Integer.MAX_VALUE);
+            int score = readInt(in, Integer.MAX_VALUE);
+            puzzles.add(new Puzzle(size, colors, cells, combinations, score));
+        }
+        return puzzles;
+    }
+
+    private static int bitsPerCell(int colors) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(colors - 1));
+    }
+
+    private static void writeVarint(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static int readInt(InputStream in, int max) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 63; shift += 7) {
+            int b = in.read();
+            if (b < 0)
+                throw new EOFException("Truncated puzzle pack");
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value > max)
+                    throw new IOException("Value out of range: " + value);
+                return (int) value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static void readFully(InputStream in, byte[] buffer) throws IOException {
+        int read = 0;
+        while (read < buffer.length) {
+            int n = in.read(buffer, read, buffer.length - read);
+            if (n < 0)
+                throw new EOFException("Truncated puzzle pack");
+            read += n;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model.puzzle;
+
+import es.danirod.rectball.model.BallColor;
+import es.danirod.rectball.model.Board;
+import es.danirod.rectball.model.BoardAnalysis;
+import es.danirod.rectball.model.Bounds;
+import es.danirod.rectball.model.RandomSource;
+import es.danirod.rectball.model.ScoreCalculator;
+import es.danirod.rectball.model.ScoringRules;
+
+/**
+ * Looks for boards that meet some constraints. Starting from a random
+ * board, the generator paints a random ball with another color and keeps
+ * the change if the board is not further from the constraints than before,
+ * until it meets them. A change only touches one cell, so the analysis of
+ * the board is updated around it instead of being made again.
+ *
+ * When the whole board must be a combination, its corners are painted with
+ * the same color first and never changed again.
+ *
+ * A generator keeps no state between puzzles, so it can be shared by many
+ * threads as long as each of them uses its own random source.
+ *
+ * @since 0.5
+ */
+public class PuzzleGenerator {
+
+    private static final BallColor[] COLORS = BallColor.values();
+
+    private final int size;
+
+    private final int colors;
+
+    private final PuzzleConstraints constraints;
+
+    private final ScoringRules rules;
+
+    private final Bounds whole;
+
+    public PuzzleGenerator(int size, PuzzleConstraints constraints, ScoringRules rules) {
+        this(size, BallColor.DEFAULT_COUNT, constraints, rules);
+    }
+
+    public PuzzleGenerator(int size, int colors, PuzzleConstraints constraints, ScoringRules rules) {
+        if (size < 2)
+            throw new IllegalArgumentException("The board is too small");
+        BallColor.checkCount(colors);
+        this.size = size;
+        this.colors = colors;
+        this.constraints = constraints;
+        this.rules = rules;
+        this.whole = new Bounds(0, 0, size - 1, size - 1);
+    }
+
+    /**
+     * Try to make a puzzle.
+     *
+     * @param random   random source for the board and the changes.
+     * @param maxSteps how many changes to try before giving up.
+     * @return the puzzle, or null if no board was found.
+     */
+    public Puzzle generate(RandomSource random, int maxSteps) {
+        Board board = new Board(size, colors, random.split());
+        board.randomize();
+        if (constraints.isPerfect()) {
+            BallColor color = board.getColor(0, 0);
+            board.setColor(size - 1, 0, color);
+            board.setColor(0, size - 1, color);
+            board.setColor(size - 1, size - 1, color);
+        }
+
+        int distance = distance(board);
+        for (int step = 0; step < maxSteps && distance > 0; step++) {
+            int x = random.nextInt(size);
+            int y = random.nextInt(size);
+            if (constraints.isPerfect() && (x == 0 || x == size - 1) && (y == 0 || y == size - 1))
+                continue;
+
+            BallColor old = board.getColor(x, y);
+            BallColor color = COLORS[(old.ordinal() + 1 + random.nextInt(colors - 1)) % colors];
+            board.setColor(x, y, color);
+            int next = distance(board);
+            if (next <= distance) {
+                distance = next;
+            } else {
+                board.setColor(x, y, old);
+            }
+        }
+        return distance == 0 ? Puzzle.of(board, rules) : null;
+    }
+
+    private int distance(Board board) {
+        BoardAnalysis analysis = board.getAnalysis();
+        int count = analysis.getCount();
+        Bounds best = analysis.getBestCombination();
+        int area = 0, score = 0;
+        if (best != null) {
+            area = (best.maxX - best.minX + 1) * (best.maxY - best.minY + 1);
+            score = ScoreCalculator.calculate(best, best, count, size, rules);
+        }
+        boolean perfect = constraints.isPerfect() && board.isCombination(whole);
+        return constraints.distance(count, area, score, perfect);
+    }
+}
@@ -0,0 +1,102 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model.replay;
+
+import es.danirod.rectball.model.BallColor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A recorded game. Since every random decision in a game comes from its
+ * seed, the seed, the size of the board, the number of colors and the
+ * events are enough to play the entire game again.
+ *
+ * @since 0.5
+ */
+public final class Replay {
+
+    private final long seed;
+
+    private final int boardSize;
+
+    private final int colors;
+
+    private final List<ReplayEvent> events;
+
+    /** The score the game claims to have when it's over, or -1. */
+    private final int claimedScore;
+
+    public Replay(long seed, int boardSize, List<ReplayEvent> events, int claimedScore) {
+        this(seed, boardSize, BallColor.DEFAULT_COUNT, events, claimedScore);
+    }
+
+    public Replay(long seed, int boardSize, int colors, List<ReplayEvent> events, int claimedScore) {
+        this.seed = seed;
+        this.boardSize = boardSize;
+        this.colors = colors;
+        this.events = Collections.unmodifiableList(new ArrayList<>(events));
+        this.claimedScore = claimedScore;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    public int getColors() {
+        return colors;
+    }
+
+    public List<ReplayEvent> getEvents() {
+        return events;
+    }
+
+    /**
+     * The score the player had when the game was over, as the game says.
+     * This is what has to be verified by playing the replay again.
+     *
+     * @return the claimed score, or -1 if the game didn't end.
+     */
+    public int getClaimedScore() {
+        return claimedScore;
+    }
+
+    /**
+     * Whether this replay contains an entire game, that is, whether the
+     * last event is the end of the game.
+     *
+     * @return true if the game in this replay is over.
+     */
+    public boolean isFinished() {
+        return !events.isEmpty() && events.get(events.size() - 1).getType() == ReplayEvent.Type.END;
+    }
+
+    /**
+     * Game time when the game was over, in milliseconds. It is the time of
+     * the last event, which should be the END event for finished games.
+     *
+     * @return the duration of this game in milliseconds.
+     */
+    public int getDuration() {
+        return events.isEmpty() ? 0 : events.get(events.size() - 1).getTime();
+    }
+}
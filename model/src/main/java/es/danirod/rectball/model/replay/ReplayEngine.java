@@ -0,0 +1,125 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model.replay;
+
+import es.danirod.rectball.model.GameState;
+import es.danirod.rectball.model.HeadlessGame;
+import es.danirod.rectball.model.ScoringRules;
+
+/**
+ * Plays a replay again through the model, without rendering anything. The
+ * game is started using the seed of the replay and every event is applied
+ * using the same rules that the game screen uses, so the result should be
+ * the same game the player played.
+ *
+ * The game screen gives time to the timer gradually and the engine gives
+ * it at once, so the timer of the engine may run out slightly before the
+ * timer of the real game did. Events that happen after the timer runs out
+ * for less than the tolerance are still accepted, and so are hints asked
+ * for when the timer was short of the minimum by less than the tolerance.
+ *
+ * An engine holds no state between replays, so it can be shared by many
+ * threads replaying games at the same time.
+ *
+ * @since 0.5
+ */
+public class ReplayEngine {
+
+    /**
+     * Default tolerance for the timer, in seconds. The game gives up to
+     * half a second of time every frame, so a big bonus can take more than
+     * half a second to be given on a slow device.
+     */
+    public static final float DEFAULT_TOLERANCE = 1f;
+
+    private final float tolerance;
+
+    public ReplayEngine() {
+        this(DEFAULT_TOLERANCE);
+    }
+
+    /**
+     * @param tolerance how many seconds may the timer be exceeded before
+     *                  the events are considered to happen after the game.
+     */
+    public ReplayEngine(float tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public ReplayResult run(Replay replay) {
+        HeadlessGame game = new HeadlessGame(replay.getBoardSize(), replay.getColors(), replay.getSeed(),
+                ScoringRules.DEFAULT);
+        GameState state = game.getState();
+
+        int now = 0;
+        float overtime = 0;
+        boolean timedOut = false;
+        int combinations = 0, rejectedSelections = 0, rejectedHints = 0, lateEvents = 0;
+
+        for (ReplayEvent event : replay.getEvents()) {
+            if (timedOut) {
+                // END is always the last thing, even after the timer ran out.
+                if (event.getType() != ReplayEvent.Type.END)
+                    lateEvents++;
+                continue;
+            }
+
+            // Let the time pass until the event.
+            float delta = (event.getTime() - now) / 1000f;
+            now = event.getTime();
+            float late = game.advance(delta);
+            if (late > 0) {
+                overtime += late;
+                if (overtime > tolerance) {
+                    timedOut = true;
+                    if (event.getType() != ReplayEvent.Type.END)
+                        lateEvents++;
+                    continue;
+                }
+                state.addTime(late);
+            } else {
+                overtime = 0;
+            }
+
+            switch (event.getType()) {
+                case SELECT:
+                    if (game.select(event.getBounds()) < 0) {
+                        rejectedSelections++;
+                    } else {
+                        combinations++;
+                    }
+                    break;
+                case HINT:
+                    if (game.hint(tolerance) == null)
+                        rejectedHints++;
+                    break;
+                case END:
+                    // The timer ran out on the last frame.
+                    timedOut = game.getTimer().getSeconds() <= 0;
+                    break;
+                default:
+                    // Pausing doesn't change anything, since game time
+                    // doesn't go on while the game is paused.
+                    break;
+            }
+        }
+
+        game.finish();
+        return new ReplayResult(state.getScore(), state.getElapsedTime(), timedOut, combinations,
+                rejectedSelections, rejectedHints, lateEvents, state.getLocalStatistics());
+    }
+}
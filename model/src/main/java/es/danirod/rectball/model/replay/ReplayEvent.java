@@ -0,0 +1,80 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model.replay;
+
+import es.danirod.rectball.model.Bounds;
+
+/**
+ * Something the player did during a game. Events are timestamped using the
+ * game time, which is the time the timer has been running, so the time
+ * spent paused or during the countdown is not taken into account.
+ *
+ * @since 0.5
+ */
+public final class ReplayEvent {
+
+    public enum Type {
+        /** The player selected a combination. */
+        SELECT,
+        /** The player pressed the help button and a hint was shown. */
+        HINT,
+        /** The game was paused. */
+        PAUSE,
+        /** The game was resumed. */
+        RESUME,
+        /** The game is over, either because of the timer or the player. */
+        END
+    }
+
+    private final Type type;
+
+    /** Game time of this event, in milliseconds. */
+    private final int time;
+
+    /** The selected bounds, only for selections. */
+    private final Bounds bounds;
+
+    public ReplayEvent(Type type, int time, Bounds bounds) {
+        if (time < 0)
+            throw new IllegalArgumentException("Negative time: " + time);
+        if ((type == Type.SELECT) != (bounds != null))
+            throw new IllegalArgumentException("Only selections have bounds");
+        this.type = type;
+        this.time = time;
+        this.bounds = bounds;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getTime() {
+        return time;
+    }
+
+    public Bounds getBounds() {
+        return bounds;
+    }
+
+    @Override
+    public String toString() {
+        if (bounds != null)
+            return type + "@" + time + " (" + bounds.minX + ", " + bounds.minY
+                    + ")-(" + bounds.maxX + ", " + bounds.maxY + ")";
+        return type + "@" + time;
+    }
+}
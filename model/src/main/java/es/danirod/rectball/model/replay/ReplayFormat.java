@@ -0,0 +1,205 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model.replay;
+
+import es.danirod.rectball.model.BallColor;
+import es.danirod.rectball.model.Bounds;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary format for replays. A replay file looks like this:
+ *
+ * <pre>
+ * magic      "RBR"
+ * version    1 byte
+ * seed       8 bytes, big endian
+ * board size varint
+ * colors     varint, only since version 2
+ * events     one after the other until END or the end of the file
+ * score      varint, only after END
+ * </pre>
+ *
+ * Every event starts with a varint holding the milliseconds since the
+ * previous event shifted three bits to the left, and the type of the event
+ * in those three bits. Selections are followed by four more varints: the
+ * bottom left corner and the width and height of the selection minus one.
+ * Varints are unsigned LEB128, so most events take one or two bytes, and a
+ * selection rarely takes more than six.
+ *
+ * Games with the classic four colors are written with version 1, so that
+ * older versions of the game can still read them.
+ *
+ * @since 0.5
+ */
+public final class ReplayFormat {
+
+    private static final byte[] MAGIC = {'R', 'B', 'R'};
+
+    private static final int VERSION = 2;
+
+    /** The version for games with the default number of colors. */
+    private static final int CLASSIC_VERSION = 1;
+
+    private static final int TYPE_BITS = 3;
+
+    private static final ReplayEvent.Type[] TYPES = ReplayEvent.Type.values();
+
+    private ReplayFormat() {
+
+    }
+
+    public static byte[] encode(Replay replay) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 + replay.getEvents().size() * 3);
+        try {
+            write(replay, out);
+        } catch (IOException e) {
+            // Cannot happen when writing to memory.
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public static Replay decode(byte[] data) throws IOException {
+        return read(new ByteArrayInputStream(data));
+    }
+
+    public static void write(Replay replay, OutputStream out) throws IOException {
+        boolean classic = replay.getColors() == BallColor.DEFAULT_COUNT;
+        out.write(MAGIC);
+        out.write(classic ? CLASSIC_VERSION : VERSION);
+        long seed = replay.getSeed();
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (seed >>> shift));
+        }
+        writeVarint(out, replay.getBoardSize());
+        if (!classic)
+            writeVarint(out, replay.getColors());
+
+        int last = 0;
+        for (ReplayEvent event : replay.getEvents()) {
+            long delta = event.getTime() - last;
+            last = event.getTime();
+            writeVarint(out, (delta << TYPE_BITS) | event.getType().ordinal());
+            if (event.getType() == ReplayEvent.Type.SELECT) {
+                Bounds bounds = event.getBounds();
+                writeVarint(out, bounds.minX);
+                writeVarint(out, bounds.minY);
+                writeVarint(out, bounds.maxX - bounds.minX);
+                writeVarint(out, bounds.maxY - bounds.minY);
+            } else if (event.getType() == ReplayEvent.Type.END) {
+                writeVarint(out, Math.max(replay.getClaimedScore(), 0));
+            }
+        }
+    }
+
+    public static Replay read(InputStream in) throws IOException {
+        for (byte b : MAGIC) {
+            if (in.read() != b)
+                throw new IOException("Not a replay");
+        }
+        int version = in.read();
+        if (version != VERSION && version != CLASSIC_VERSION)
+            throw new IOException("Unsupported replay version " + version);
+        long seed = 0;
+        for (int i = 0; i < 8; i++) {
+            seed = (seed << 8) | readByte(in);
+        }
+        int boardSize = readInt(in);
+        int colors = version == CLASSIC_VERSION ? BallColor.DEFAULT_COUNT : readInt(in);
+
+        List<ReplayEvent> events = new ArrayList<>();
+        int score = -1;
+        long time = 0;
+        while (true) {
+            long header = readVarint(in, true);
+            if (header < 0)
+                break;
+            int type = (int) (header & ((1 << TYPE_BITS) - 1));
+            if (type >= TYPES.length)
+                throw new IOException("Unknown event type " + type);
+            time += header >>> TYPE_BITS;
+            if (time > Integer.MAX_VALUE)
+                throw new IOException("Replay too long");
+
+            Bounds bounds = null;
+            if (TYPES[type] == ReplayEvent.Type.SELECT) {
+                int minX = readInt(in), minY = readInt(in);
+                int maxX = minX + readInt(in), maxY = minY + readInt(in);
+                bounds = new Bounds(minX, minY, maxX, maxY);
+            }
+            events.add(new ReplayEvent(TYPES[type], (int) time, bounds));
+            if (TYPES[type] == ReplayEvent.Type.END) {
+                long value = readVarint(in, false);
+                if (value > Integer.MAX_VALUE)
+                    throw new IOException("Score out of range: " + value);
+                score = (int) value;
+                break;
+            }
+        }
+        return new Replay(seed, boardSize, colors, events, score);
+    }
+
+    private static void writeVarint(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static int readInt(InputStream in) throws IOException {
+        long value = readVarint(in, false);
+        if (value > Short.MAX_VALUE)
+            throw new IOException("Value out of range: " + value);
+        return (int) value;
+    }
+
+    /**
+     * Read a varint. When the stream ends before the first byte, this
+     * returns -1 if it's allowed, so that the caller can stop reading.
+     */
+    private static long readVarint(InputStream in, boolean eofAllowed) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 63; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                if (eofAllowed && shift == 0)
+                    return -1;
+                throw new EOFException("Truncated replay");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0)
+            throw new EOFException("Truncated replay");
+        return b;
+    }
+}
@@ -0,0 +1,115 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model.replay;
+
+import es.danirod.rectball.model.BallColor;
+import es.danirod.rectball.model.Bounds;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the events of a game while it is being played. Times are given
+ * in seconds of game time, as in {@link es.danirod.rectball.model.GameState#getElapsedTime()},
+ * and stored in milliseconds. Time never goes backwards in a replay.
+ *
+ * @since 0.5
+ */
+public class ReplayRecorder {
+
+    private final long seed;
+
+    private final int boardSize;
+
+    private final int colors;
+
+    private final List<ReplayEvent> events = new ArrayList<>();
+
+    private int lastTime = 0;
+
+    private int score = -1;
+
+    public ReplayRecorder(long seed, int boardSize) {
+        this(seed, boardSize, BallColor.DEFAULT_COUNT);
+    }
+
+    public ReplayRecorder(long seed, int boardSize, int colors) {
+        this.seed = seed;
+        this.boardSize = boardSize;
+        this.colors = colors;
+    }
+
+    /**
+     * Keep recording a game whose recording was interrupted, such as a game
+     * restored after the app was closed by the system.
+     *
+     * @param unfinished the events recorded so far.
+     */
+    public ReplayRecorder(Replay unfinished) {
+        if (unfinished.isFinished())
+            throw new IllegalArgumentException("The game in this replay is over");
+        this.seed = unfinished.getSeed();
+        this.boardSize = unfinished.getBoardSize();
+        this.colors = unfinished.getColors();
+        this.events.addAll(unfinished.getEvents());
+        this.lastTime = unfinished.getDuration();
+    }
+
+    public void select(float time, Bounds bounds) {
+        record(ReplayEvent.Type.SELECT, time, bounds);
+    }
+
+    public void hint(float time) {
+        record(ReplayEvent.Type.HINT, time, null);
+    }
+
+    public void pause(float time) {
+        record(ReplayEvent.Type.PAUSE, time, null);
+    }
+
+    public void resume(float time) {
+        record(ReplayEvent.Type.RESUME, time, null);
+    }
+
+    /**
+     * Finish the recording. No more events will be recorded.
+     *
+     * @param time  game time when the game was over.
+     * @param score final score of the game.
+     */
+    public void end(float time, int score) {
+        if (!isFinished()) {
+            record(ReplayEvent.Type.END, time, null);
+            this.score = score;
+        }
+    }
+
+    public boolean isFinished() {
+        return score >= 0;
+    }
+
+    public Replay toReplay() {
+        return new Replay(seed, boardSize, colors, events, score);
+    }
+
+    private void record(ReplayEvent.Type type, float time, Bounds bounds) {
+        if (isFinished())
+            return;
+        lastTime = Math.max(lastTime, Math.round(time * 1000f));
+        events.add(new ReplayEvent(type, lastTime, bounds));
+    }
+}
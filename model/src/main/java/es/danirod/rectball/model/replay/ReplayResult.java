@@ -0,0 +1,94 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model.replay;
+
+import es.danirod.rectball.model.LocalStatistics;
+
+/**
+ * What happened when a replay was played again.
+ *
+ * @since 0.5
+ */
+public final class ReplayResult {
+
+    private final int score;
+
+    private final float elapsedTime;
+
+    private final boolean timedOut;
+
+    private final int combinations;
+
+    private final int rejectedSelections;
+
+    private final int rejectedHints;
+
+    private final int lateEvents;
+
+    private final LocalStatistics statistics;
+
+    ReplayResult(int score, float elapsedTime, boolean timedOut, int combinations, int rejectedSelections,
+                 int rejectedHints, int lateEvents, LocalStatistics statistics) {
+        this.score = score;
+        this.elapsedTime = elapsedTime;
+        this.timedOut = timedOut;
+        this.combinations = combinations;
+        this.rejectedSelections = rejectedSelections;
+        this.rejectedHints = rejectedHints;
+        this.lateEvents = lateEvents;
+        this.statistics = statistics;
+    }
+
+    /** The final score of the game. */
+    public int getScore() {
+        return score;
+    }
+
+    /** How many seconds the game lasted, in game time. */
+    public float getElapsedTime() {
+        return elapsedTime;
+    }
+
+    /** Whether the game ended because the timer ran out. */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    /** How many valid combinations were made. */
+    public int getCombinations() {
+        return combinations;
+    }
+
+    /** Selections that were not a combination in the replayed board. */
+    public int getRejectedSelections() {
+        return rejectedSelections;
+    }
+
+    /** Hints requested when the rules don't allow showing one. */
+    public int getRejectedHints() {
+        return rejectedHints;
+    }
+
+    /** Events that happened after the timer should have run out. */
+    public int getLateEvents() {
+        return lateEvents;
+    }
+
+    public LocalStatistics getStatistics() {
+        return statistics;
+    }
+}
@@ -0,0 +1,128 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model.replay;
+
+import es.danirod.rectball.model.BallColor;
+
+/**
+ * Checks whether the score of a recorded game is legit. The game is played
+ * again from its seed and its events, and the result must match what the
+ * game claims: the same score and the same duration. Any selection that
+ * is not a combination, any hint that the rules wouldn't give, and any
+ * event after the timer ran out make the replay rejected as well.
+ *
+ * A verifier holds no state between replays, so it can be shared by many
+ * threads verifying replays at the same time.
+ *
+ * @since 0.5
+ */
+public class ReplayVerifier {
+
+    /** Bigger boards are rejected without playing them. */
+    public static final int MAX_BOARD_SIZE = 128;
+
+    public enum Verdict {
+        ACCEPTED,
+        /** The game in the replay is not over. */
+        UNFINISHED,
+        /** The board size is not one the game can have. */
+        INVALID_BOARD,
+        /** There is a selection that is not a combination. */
+        INVALID_SELECTION,
+        /** There is a hint that the rules wouldn't give. */
+        INVALID_HINT,
+        /** There are events after the timer ran out. */
+        AFTER_TIMEOUT,
+        /** The claimed score is not the score of the game. */
+        WRONG_SCORE,
+        /** The game didn't last as long as claimed. */
+        WRONG_TIME
+    }
+
+    /** The outcome of a verification. */
+    public static final class Verification {
+
+        private final Verdict verdict;
+
+        private final ReplayResult result;
+
+        Verification(Verdict verdict, ReplayResult result) {
+            this.verdict = verdict;
+            this.result = result;
+        }
+
+        public boolean isAccepted() {
+            return verdict == Verdict.ACCEPTED;
+        }
+
+        public Verdict getVerdict() {
+            return verdict;
+        }
+
+        /** What happened when the replay was played, or null if it wasn't. */
+        public ReplayResult getResult() {
+            return result;
+        }
+    }
+
+    private final ReplayEngine engine;
+
+    private final float tolerance;
+
+    public ReplayVerifier() {
+        this(ReplayEngine.DEFAULT_TOLERANCE);
+    }
+
+    /**
+     * @param tolerance how many seconds can differ the timer of the replay
+     *                  and the timer of the game.
+     */
+    public ReplayVerifier(float tolerance) {
+        this.engine = new ReplayEngine(tolerance);
+        this.tolerance = tolerance;
+    }
+
+    public Verification verify(Replay replay) {
+        if (!replay.isFinished() || replay.getClaimedScore() < 0)
+            return new Verification(Verdict.UNFINISHED, null);
+        if (replay.getBoardSize() < 2 || replay.getBoardSize() > MAX_BOARD_SIZE)
+            return new Verification(Verdict.INVALID_BOARD, null);
+        if (replay.getColors() < BallColor.MIN_COUNT || replay.getColors() > BallColor.MAX_COUNT)
+            return new Verification(Verdict.INVALID_BOARD, null);
+
+        ReplayResult result = engine.run(replay);
+        return new Verification(judge(replay, result), result);
+    }
+
+    private Verdict judge(Replay replay, ReplayResult result) {
+        if (result.getRejectedSelections() > 0)
+            return Verdict.INVALID_SELECTION;
+        if (result.getRejectedHints() > 0)
+            return Verdict.INVALID_HINT;
+        if (result.getLateEvents() > 0)
+            return Verdict.AFTER_TIMEOUT;
+        if (result.getScore() != replay.getClaimedScore())
+            return Verdict.WRONG_SCORE;
+
+        // A game can be left before the timer runs out, but it can't last
+        // longer than the timer says.
+        float claimedTime = replay.getDuration() / 1000f;
+        if (claimedTime > result.getElapsedTime() + tolerance)
+            return Verdict.WRONG_TIME;
+        return Verdict.ACCEPTED;
+    }
+}
@@ -0,0 +1,99 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model.solver;
+
+import es.danirod.rectball.model.Board;
+import es.danirod.rectball.model.Bounds;
+import es.danirod.rectball.model.RandomSource;
+import es.danirod.rectball.model.ScoringRules;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A solver that searches every move of the board in its own task, so that
+ * the moves are searched at the same time on a fork/join pool. The
+ * transposition table is shared by every task without locks. This is a
+ * separate class so that platforms without threads never get to see it.
+ *
+ * @since 0.5
+ */
+public class ParallelSolver extends Solver {
+
+    private final ForkJoinPool pool;
+
+    private final AtomicLong nodes = new AtomicLong();
+
+    public ParallelSolver(ScoringRules rules, int maxDepth, int samples, long budget) {
+        this(rules, maxDepth, samples, budget, ForkJoinPool.commonPool());
+    }
+
+    public ParallelSolver(ScoringRules rules, int maxDepth, int samples, long budget, ForkJoinPool pool) {
+        super(rules, maxDepth, samples, budget);
+        this.pool = pool;
+        super.setTable(new SharedTranspositionTable(1 << 14));
+    }
+
+    @Override
+    public void setTable(TranspositionTable table) {
+        if (!(table instanceof SharedTranspositionTable))
+            throw new IllegalArgumentException("The tasks of a parallel solver need a shared table");
+        super.setTable(table);
+    }
+
+    @Override
+    void evaluateMoves(final Board board, List<Bounds> moves, final int depth, RandomSource random,
+                       final float[] values) {
+        final List<RecursiveAction> tasks = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            final int index = i;
+            final Bounds move = moves.get(i);
+            // Random sources are not thread safe, every task needs its own.
+            final RandomSource taskRandom = random.split();
+            tasks.add(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    values[index] = evaluate(board, move, depth, taskRandom);
+                }
+            });
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+    }
+
+    @Override
+    void resetNodes() {
+        nodes.set(0);
+    }
+
+    @Override
+    void countNode() {
+        nodes.incrementAndGet();
+    }
+
+    @Override
+    long nodeCount() {
+        return nodes.get();
+    }
+}
@@ -0,0 +1,51 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model.solver;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A transposition table that can be used by several threads at the same
+ * time, such as the tasks of a {@link ParallelSolver}. The longs are read
+ * and written atomically, and an entry half written by another thread is
+ * just a miss.
+ *
+ * @since 0.5
+ */
+public final class SharedTranspositionTable extends TranspositionTable {
+
+    private final AtomicLongArray slots;
+
+    /**
+     * @param buckets how many buckets to allocate. It is rounded up to a
+     *                power of two. Every bucket takes 32 bytes.
+     */
+    public SharedTranspositionTable(int buckets) {
+        super(buckets);
+        this.slots = new AtomicLongArray(length());
+    }
+
+    @Override
+    long slot(int index) {
+        return slots.get(index);
+    }
+
+    @Override
+    void setSlot(int index, long value) {
+        slots.set(index, value);
+    }
+}
@@ -0,0 +1,70 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model.solver;
+
+import es.danirod.rectball.model.Bounds;
+
+/**
+ * The move found by a solver.
+ *
+ * @since 0.5
+ */
+public final class Solution {
+
+    private final Bounds move;
+
+    private final float value;
+
+    private final int depth;
+
+    private final float moveTime;
+
+    private final long nodes;
+
+    Solution(Bounds move, float value, int depth, float moveTime, long nodes) {
+        this.move = move;
+        this.value = value;
+        this.depth = depth;
+        this.moveTime = moveTime;
+        this.nodes = nodes;
+    }
+
+    /** The combination to make. */
+    public Bounds getMove() {
+        return move;
+    }
+
+    /** Expected value of the move and the best moves after it. */
+    public float getValue() {
+        return value;
+    }
+
+    /** Expected value per second of play, for the moves searched. */
+    public float getScorePerSecond() {
+        return value / (depth * moveTime);
+    }
+
+    /** How many moves ahead the search got before running out of time. */
+    public int getDepth() {
+        return depth;
+    }
+
+    /** How many boards were analysed. */
+    public long getNodes() {
+        return nodes;
+    }
+}
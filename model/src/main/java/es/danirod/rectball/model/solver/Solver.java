@@ -0,0 +1,269 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model.solver;
+
+import es.danirod.rectball.model.Board;
+import es.danirod.rectball.model.BoardAnalysis;
+import es.danirod.rectball.model.BoardSymmetry;
+import es.danirod.rectball.model.Bounds;
+import es.danirod.rectball.model.Coordinate;
+import es.danirod.rectball.model.RandomSource;
+import es.danirod.rectball.model.ScoreCalculator;
+import es.danirod.rectball.model.ScoringRules;
+
+import java.util.List;
+
+/**
+ * Looks for the best move by searching some moves ahead. The balls of a
+ * combination are painted again at random, so the board after a move is
+ * not known: the solver tries a few random paintings of the region and
+ * averages the value of the best moves on them (expectimax).
+ *
+ * The value of a move is its score plus the score that the time it gives
+ * is worth, at the rate the player makes score. Moves are compared by the
+ * value they are expected to make, together with the best moves after them,
+ * which for a given depth is the same as comparing them by score per second.
+ *
+ * The search deepens one move at a time until the maximum depth or until
+ * the time budget runs out, in which case the result of the last complete
+ * depth is used. The value and the analysis of the boards seen are kept in
+ * a transposition table, so the same board found through another path is
+ * not searched again. Analyses are keyed by the canonical key of the board,
+ * so they are shared by rotated, reflected and recolored boards, and they
+ * are kept from one search to the next one.
+ *
+ * A solver can be used by one thread at a time. See ParallelSolver for a
+ * solver that searches the moves of the board in parallel.
+ *
+ * @since 0.5
+ */
+public class Solver {
+
+    /** Thrown when the time budget runs out in the middle of a search. */
+    static final class OutOfTime extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        OutOfTime() {
+            super("Out of time", null, false, false);
+        }
+    }
+
+    private static final OutOfTime OUT_OF_TIME = new OutOfTime();
+
+    /** Mixed into the hash of a board to key its analysis. */
+    private static final long ANALYSIS_KEY = 0x5bd1e9955bd1e995L;
+
+    private final ScoringRules rules;
+
+    private final int maxDepth;
+
+    private final int samples;
+
+    /** Milliseconds the search can take, or 0 for no limit. */
+    private final long budget;
+
+    /** Score per second the player makes, to put a value on time. */
+    private float scoreRate = 2.5f;
+
+    /** Seconds the player takes to make a move. */
+    private float moveTime = 6f;
+
+    /** Value and analysis of the boards seen, keyed by their hash. */
+    private TranspositionTable table = new LocalTranspositionTable(1 << 14);
+
+    private long deadline;
+
+    private long nodes;
+
+    /**
+     * @param rules    the rules used to score the moves.
+     * @param maxDepth how many moves ahead to search.
+     * @param samples  how many paintings of a region to try after a move.
+     * @param budget   milliseconds a search can take, or 0 for no limit.
+     */
+    public Solver(ScoringRules rules, int maxDepth, int samples, long budget) {
+        if (maxDepth < 1 || samples < 1)
+            throw new IllegalArgumentException("Depth and samples must be positive");
+        this.rules = rules;
+        this.maxDepth = maxDepth;
+        this.samples = samples;
+        this.budget = budget;
+    }
+
+    public void setScoreRate(float scoreRate) {
+        this.scoreRate = scoreRate;
+    }
+
+    public void setMoveTime(float moveTime) {
+        this.moveTime = moveTime;
+    }
+
+    /**
+     * Use another transposition table, for instance a bigger one. A table
+     * can be shared by solvers that are not used at the same time. A
+     * ParallelSolver needs a {@link SharedTranspositionTable}.
+     */
+    public void setTable(TranspositionTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Find the best move for a board.
+     *
+     * @param board  the board, which must have at least one combination.
+     *               It is not changed.
+     * @param random random source for the paintings tried after a move.
+     * @return the best move found.
+     */
+    public Solution solve(Board board, RandomSource random) {
+        deadline = budget > 0 ? System.nanoTime() + budget * 1000000L : 0;
+        resetNodes();
+        table.newSearch();
+
+        List<Bounds> moves = board.getAnalysis().getPossibleBounds();
+        float[] values = new float[moves.size()];
+        int depth = 0;
+
+        // The first depth doesn't need to look at other boards, so it is
+        // always complete no matter how small the budget is.
+        for (int d = 1; d <= maxDepth; d++) {
+            float[] next = new float[moves.size()];
+            try {
+                evaluateMoves(board, moves, d, random, next);
+            } catch (OutOfTime e) {
+                break;
+            }
+            values = next;
+            depth = d;
+        }
+
+        int best = 0;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] > values[best])
+                best = i;
+        }
+        return new Solution(moves.get(best), values[best], depth, moveTime, nodeCount());
+    }
+
+    /** Evaluate every move of the root board for the given depth. */
+    void evaluateMoves(Board board, List<Bounds> moves, int depth, RandomSource random, float[] values) {
+        for (int i = 0; i < moves.size(); i++) {
+            values[i] = evaluate(board, moves.get(i), depth, random);
+        }
+    }
+
+    void resetNodes() {
+        nodes = 0;
+    }
+
+    void countNode() {
+        nodes++;
+    }
+
+    long nodeCount() {
+        return nodes;
+    }
+
+    /**
+     * Expected value of making a move and then the best moves after it.
+     *
+     * @param board  the board where the move is made.
+     * @param move   the move to make.
+     * @param depth  how many moves to look at, including this one.
+     * @param random random source for the paintings of the region.
+     * @return the expected value.
+     */
+    float evaluate(Board board, Bounds move, int depth, RandomSource random) {
+        float value = value(new ScoreCalculator(board, move, rules).calculate());
+        if (depth <= 1)
+            return value;
+
+        Coordinate bottomLeft = new Coordinate(move.minX, move.minY);
+        Coordinate upperRight = new Coordinate(move.maxX, move.maxY);
+        float future = 0f;
+        for (int i = 0; i < samples; i++) {
+            Board next = board.copy(random.split());
+            next.randomize(bottomLeft, upperRight);
+            future += search(next, depth - 1, random);
+        }
+        return value + future / samples;
+    }
+
+    /** Value of the best move of a board, looking the given moves ahead. */
+    private float search(Board board, int depth, RandomSource random) {
+        if (deadline != 0 && System.nanoTime() > deadline)
+            throw OUT_OF_TIME;
+        countNode();
+
+        // The best move of the last depth is always the best combination,
+        // so its value only needs the analysis, which is cached separately.
+        if (depth == 1)
+            return bestValue(board);
+
+        long hash = board.getHash();
+        long cached = table.get(hash, depth);
+        if (cached != TranspositionTable.MISS)
+            return Float.intBitsToFloat((int) cached);
+
+        float best = 0f;
+        for (Bounds move : board.getAnalysis().getPossibleBounds()) {
+            best = Math.max(best, evaluate(board, move, depth, random));
+        }
+        table.put(hash, depth, Float.floatToRawIntBits(best) & 0xFFFFFFFFL);
+        return best;
+    }
+
+    /**
+     * Value of the best combination of a board. It only depends on how many
+     * combinations there are and on the size of the best one, which don't
+     * change when the board is rotated, reflected or its colors swapped. So
+     * they are cached by the canonical key of the board, packed in 48 bits:
+     * the count, then the width and height of the best combination.
+     */
+    private float bestValue(Board board) {
+        // Bigger boards aren't cached, the width and height are packed in 8 bits.
+        if (board.getSize() > 256) {
+            BoardAnalysis analysis = board.getAnalysis();
+            Bounds best = analysis.getBestCombination();
+            return best == null ? 0f : value(ScoreCalculator.calculate(best, best, analysis.getCount(), board.getSize(), rules));
+        }
+
+        // Boards bigger than 8 are canonicalized cell by cell, which costs more
+        // than what the cache saves, and they rarely match anyway.
+        long key = board.getSize() <= 8 ? BoardSymmetry.canonicalKey(board) : board.getHash();
+        key ^= ANALYSIS_KEY;
+        long packed = table.get(key, 0);
+        if (packed == TranspositionTable.MISS) {
+            BoardAnalysis analysis = board.getAnalysis();
+            Bounds best = analysis.getBestCombination();
+            packed = best == null ? 0 : (long) Math.min(analysis.getCount(), 0xFFFF) << 16
+                    | (best.maxX - best.minX) << 8 | (best.maxY - best.minY);
+            table.put(key, 0, packed);
+        }
+
+        int count = (int) (packed >>> 16);
+        if (count == 0)
+            return 0f;
+        Bounds best = new Bounds(0, 0, (int) (packed >>> 8) & 0xFF, (int) packed & 0xFF);
+        return value(ScoreCalculator.calculate(best, best, count, board.getSize(), rules));
+    }
+
+    /** Value of a score, adding the value of the time it gives. */
+    private float value(int score) {
+        return score + scoreRate * (rules.getTimeBonus() + score / rules.getScorePerSecond());
+    }
+}
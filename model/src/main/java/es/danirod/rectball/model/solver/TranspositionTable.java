@@ -0,0 +1,149 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.model.solver;
+
+/**
+ * A fixed-size table of results keyed by the Zobrist hash of a board, so
+ * that a board reached again does not have to be analysed or searched
+ * again. Where the entries are kept depends on the subclass: a
+ * {@link LocalTranspositionTable} is used by a single thread, and a
+ * {@link SharedTranspositionTable} can be used by several threads at the
+ * same time without locks.
+ *
+ * Every entry is two longs: the data, and the key XORed with the data. A
+ * reader only trusts an entry if XORing both longs gives back the key it is
+ * looking for, so an entry half written by another thread is just a miss.
+ *
+ * The data packs a 48-bit payload, the depth of the result and the search
+ * that stored it. Buckets have two entries: the first one is only replaced
+ * by results of the same or a greater depth, the second one is always
+ * replaced, so deep results survive while recent ones still get a place.
+ *
+ * Results of depth 0 are the analysis of a board, which only depends on its
+ * colors, so they are valid for every search. Greater depths are values of
+ * a search and are only returned to the search that stored them, because
+ * they depend on its rules and on the paintings it tried.
+ *
+ * @since 0.5
+ */
+public abstract class TranspositionTable {
+
+    /** Returned by get() when the table has no result for a key. */
+    public static final long MISS = -1L;
+
+    private static final int PAYLOAD_BITS = 48;
+
+    private static final long PAYLOAD_MASK = (1L << PAYLOAD_BITS) - 1;
+
+    private static final int MAX_DEPTH = 0x7F;
+
+    /** Set in every stored entry, so that an empty entry is never a hit. */
+    private static final long USED = 1L << 55;
+
+    /** How many longs are there: two entries per bucket, two longs per entry. */
+    private final int length;
+
+    private final int mask;
+
+    private volatile int search;
+
+    /**
+     * @param buckets how many buckets to allocate. It is rounded up to a
+     *                power of two. Every bucket takes 32 bytes.
+     */
+    TranspositionTable(int buckets) {
+        if (buckets < 1 || buckets > (1 << 26))
+            throw new IllegalArgumentException("Invalid number of buckets: " + buckets);
+        int size = Integer.highestOneBit(buckets);
+        if (size < buckets)
+            size <<= 1;
+        this.length = size * 4;
+        this.mask = size - 1;
+    }
+
+    /** @return how many longs the subclass has to keep. */
+    final int length() {
+        return length;
+    }
+
+    abstract long slot(int index);
+
+    abstract void setSlot(int index, long value);
+
+    /**
+     * Start a new search. The search values stored until now are not
+     * returned anymore, but the analyses are kept. This has to be called
+     * while no thread is using the table.
+     */
+    public void newSearch() {
+        search = (search + 1) & 0xFF;
+        if (search == 0) {
+            // The counter wrapped, old values could match again.
+            for (int i = 0; i < length; i++) {
+                setSlot(i, 0L);
+            }
+        }
+    }
+
+    /**
+     * Get the result stored for a key at the given depth.
+     *
+     * @param key   the key, usually the hash of a board.
+     * @param depth the depth of the result, 0 for analyses.
+     * @return the payload of the result, or {@link #MISS}.
+     */
+    public long get(long key, int depth) {
+        int base = index(key);
+        for (int i = base; i < base + 4; i += 2) {
+            long data = slot(i + 1);
+            if ((slot(i) ^ data) == key && depthOf(data) == depth && isCurrent(data))
+                return data & PAYLOAD_MASK;
+        }
+        return MISS;
+    }
+
+    /**
+     * Store a result.
+     *
+     * @param key     the key, usually the hash of a board.
+     * @param depth   the depth of the result, 0 for analyses.
+     * @param payload the result, which must fit in 48 bits.
+     */
+    public void put(long key, int depth, long payload) {
+        if (depth < 0 || depth > MAX_DEPTH || (payload & ~PAYLOAD_MASK) != 0)
+            throw new IllegalArgumentException("Result does not fit in the table");
+        long data = payload | ((long) depth << PAYLOAD_BITS) | USED | ((long) search << 56);
+        int base = index(key);
+        long old = slot(base + 1);
+        boolean replace = !isCurrent(old) || depth >= depthOf(old);
+        int i = replace ? base : base + 2;
+        setSlot(i + 1, data);
+        setSlot(i, key ^ data);
+    }
+
+    private int index(long key) {
+        return ((int) (key ^ (key >>> 32)) & mask) << 2;
+    }
+
+    private boolean isCurrent(long data) {
+        return (data & USED) != 0 && (depthOf(data) == 0 || (int) (data >>> 56) == search);
+    }
+
+    private static int depthOf(long data) {
+        return (int) (data >>> PAYLOAD_BITS) & MAX_DEPTH;
+    }
+}
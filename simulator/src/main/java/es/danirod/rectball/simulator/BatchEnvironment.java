@@ -0,0 +1,315 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.simulator;
+
+import es.danirod.rectball.model.BallColor;
+import es.danirod.rectball.model.Bounds;
+import es.danirod.rectball.model.ScoringRules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Plays many games in lockstep, for training and evaluating bots. Every
+ * call steps the whole batch: reset() starts the games with some seeds,
+ * step() makes a move in every game and validActions() tells which moves
+ * are combinations in every game.
+ *
+ * Moves are numbered: every rectangle of the board gets an action, sorted
+ * by bottom row, left column, right column and top row, the same order the
+ * combination finder uses. Making a move takes the move time from the
+ * timer, as a bot thinking, and then makes the combination, following the
+ * same rules as a headless game. A game is done when its timer runs out or
+ * after the maximum time, and it is not changed again until it is reset.
+ *
+ * Games are split in shards, which own the state of their games and are
+ * stepped in parallel on a fork/join pool. Boards up to 8x8 are supported.
+ *
+ * @since 0.5
+ */
+public class BatchEnvironment {
+
+    private final int batchSize;
+
+    private final int boardSize;
+
+    private final int colors;
+
+    private final ScoringRules rules;
+
+    private final float moveTime;
+
+    private final float maxTime;
+
+    private final ForkJoinPool pool;
+
+    private final EnvironmentShard[] shards;
+
+    /** Corners of every action, as a mask of the board cells. */
+    final long[] corners;
+
+    final int[] minX, minY, maxX, maxY, areas;
+
+    /** The action that covers the whole board. */
+    final int perfect;
+
+    public BatchEnvironment(int batchSize, int boardSize, ScoringRules rules, float moveTime, float maxTime,
+                            int shards, ForkJoinPool pool) {
+        this(batchSize, boardSize, BallColor.DEFAULT_COUNT, rules, moveTime, maxTime, shards, pool);
+    }
+
+    /**
+     * @param batchSize how many games to play at the same time.
+     * @param boardSize the size of the boards, up to 8.
+     * @param colors    how many colors the balls can have.
+     * @param rules     the rules used to score the moves.
+     * @param moveTime  how many seconds every move takes.
+     * @param maxTime   games are done after this number of seconds.
+     * @param shards    how many shards to split the games in.
+     * @param pool      the pool where shards are stepped.
+     */
+    public BatchEnvironment(int batchSize, int boardSize, int colors, ScoringRules rules, float moveTime,
+                            float maxTime, int shards, ForkJoinPool pool) {
+        BallColor.checkCount(colors);
+        if (boardSize < 2 || boardSize > 8)
+            throw new IllegalArgumentException("Board size must be between 2 and 8");
+        if (batchSize < 1 || shards < 1)
+            throw new IllegalArgumentException("Batch size and shards must be positive");
+        this.batchSize = batchSize;
+        this.boardSize = boardSize;
+        this.colors = colors;
+        this.rules = rules;
+        this.moveTime = moveTime;
+        this.maxTime = maxTime;
+        this.pool = pool;
+
+        int pairs = boardSize * (boardSize - 1) / 2;
+        int actions = pairs * pairs;
+        corners = new long[actions];
+        minX = new int[actions];
+        minY = new int[actions];
+        maxX = new int[actions];
+        maxY = new int[actions];
+        areas = new int[actions];
+        int a = 0, whole = -1;
+        for (int bottom = 0; bottom < boardSize - 1; bottom++) {
+            for (int left = 0; left < boardSize - 1; left++) {
+                for (int right = left + 1; right < boardSize; right++) {
+                    for (int top = bottom + 1; top < boardSize; top++) {
+                        minX[a] = left;
+                        minY[a] = bottom;
+                        maxX[a] = right;
+                        maxY[a] = top;
+                        areas[a] = (right - left + 1) * (top - bottom + 1);
+                        corners[a] = 1L << (bottom * boardSize + left) | 1L << (bottom * boardSize + right)
+                                | 1L << (top * boardSize + left) | 1L << (top * boardSize + right);
+                        if (areas[a] == boardSize * boardSize)
+                            whole = a;
+                        a++;
+                    }
+                }
+            }
+        }
+        this.perfect = whole;
+
+        int count = Math.min(shards, batchSize);
+        this.shards = new EnvironmentShard[count];
+        for (int s = 0, offset = 0; s < count; s++) {
+            int games = batchSize / count + (s < batchSize % count ? 1 : 0);
+            this.shards[s] = new EnvironmentShard(this, offset, games);
+            offset += games;
+        }
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    public int getColors() {
+        return colors;
+    }
+
+    public ScoringRules getRules() {
+        return rules;
+    }
+
+    public float getMoveTime() {
+        return moveTime;
+    }
+
+    public float getMaxTime() {
+        return maxTime;
+    }
+
+    /** @return how many moves there are. */
+    public int getActionCount() {
+        return corners.length;
+    }
+
+    /** @return the rectangle of a move. */
+    public Bounds getAction(int action) {
+        return new Bounds(minX[action], minY[action], maxX[action], maxY[action]);
+    }
+
+    /** @return how many longs every game takes in the valid action masks. */
+    public int getMaskWords() {
+        return (corners.length + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    /**
+     * Start a new game in every slot of the batch.
+     *
+     * @param seeds a seed for every game.
+     */
+    public void reset(final long[] seeds) {
+        forEachShard(shard -> {
+            for (int g = 0; g < shard.count; g++) {
+                shard.reset(g, seeds[shard.offset + g]);
+            }
+        });
+    }
+
+    /** Start a new game in a slot of the batch. */
+    public void reset(int game, long seed) {
+        EnvironmentShard shard = shardOf(game);
+        shard.reset(game - shard.offset, seed);
+    }
+
+    /**
+     * Make a move in every game.
+     *
+     * @param actions the move for every game.
+     * @param rewards filled with the score given by every move.
+     * @param dones   filled with whether every game is done.
+     */
+    public void step(final int[] actions, final int[] rewards, final boolean[] dones) {
+        forEachShard(shard -> {
+            for (int g = 0; g < shard.count; g++) {
+                int game = shard.offset + g;
+                rewards[game] = shard.step(g, actions[game]);
+                dones[game] = shard.isDone(g);
+            }
+        });
+    }
+
+    /**
+     * Find the valid moves of every game.
+     *
+     * @param masks filled with a bit set for every game, getMaskWords()
+     *              longs each, where the bit of every valid move is set.
+     */
+    public void validActions(final long[] masks) {
+        final int words = getMaskWords();
+        forEachShard(shard -> {
+            Arrays.fill(masks, shard.offset * words, (shard.offset + shard.count) * words, 0L);
+            for (int g = 0; g < shard.count; g++) {
+                shard.validActions(g, masks, (shard.offset + g) * words);
+            }
+        });
+    }
+
+    /**
+     * Get the colors of every game.
+     *
+     * @param cells filled with the ordinal of the color of every cell,
+     *              boardSize * boardSize bytes for every game, row by row.
+     */
+    public void observe(final byte[] cells) {
+        final int area = boardSize * boardSize;
+        forEachShard(shard -> {
+            for (int g = 0; g < shard.count; g++) {
+                shard.observe(g, cells, (shard.offset + g) * area);
+            }
+        });
+    }
+
+    public int getScore(int game) {
+        EnvironmentShard shard = shardOf(game);
+        return shard.getScore(game - shard.offset);
+    }
+
+    public float getElapsedTime(int game) {
+        EnvironmentShard shard = shardOf(game);
+        return shard.getElapsedTime(game - shard.offset);
+    }
+
+    /** @return how many seconds are left in the timer of a game. */
+    public float getRemainingTime(int game) {
+        EnvironmentShard shard = shardOf(game);
+        return shard.getSeconds(game - shard.offset);
+    }
+
+    public int getCombinations(int game) {
+        EnvironmentShard shard = shardOf(game);
+        return shard.getCombinations(game - shard.offset);
+    }
+
+    public boolean isDone(int game) {
+        EnvironmentShard shard = shardOf(game);
+        return shard.isDone(game - shard.offset);
+    }
+
+    /** @return true if the game is done because its timer ran out. */
+    public boolean isTimedOut(int game) {
+        EnvironmentShard shard = shardOf(game);
+        return shard.isTimedOut(game - shard.offset);
+    }
+
+    private EnvironmentShard shardOf(int game) {
+        if (game < 0 || game >= batchSize)
+            throw new IndexOutOfBoundsException("No game " + game);
+        for (EnvironmentShard shard : shards) {
+            if (game < shard.offset + shard.count)
+                return shard;
+        }
+        throw new IllegalStateException();
+    }
+
+    private interface ShardWork {
+        void run(EnvironmentShard shard);
+    }
+
+    /** Run some work on every shard, in parallel if there are many. */
+    private void forEachShard(final ShardWork work) {
+        if (shards.length == 1) {
+            work.run(shards[0]);
+            return;
+        }
+        final List<RecursiveAction> tasks = new ArrayList<>(shards.length);
+        for (final EnvironmentShard shard : shards) {
+            tasks.add(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    work.run(shard);
+                }
+            });
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+    }
+}
@@ -14,31 +14,26 @@
  * You should have received a copy of the GNU General Public License
  * along with this program.  If not, see <https://www.gnu.org/licenses/>.
  */
-package es.danirod.rectball.utils
+package es.danirod.rectball.simulator;
 
-class AlwaysGrowingMatrix<T>(private val generator: (x: Int, y: Int) -> T) {
+import es.danirod.rectball.model.Board;
+import es.danirod.rectball.model.Bounds;
+import es.danirod.rectball.model.RandomSource;
 
-    private var items: MutableList<MutableList<T?>> = mutableListOf()
-
-    fun get(x: Int, y: Int): T {
-        while (y >= items.size) {
-            items.add(mutableListOf())
-        }
-        val row = items[y]
-        while (x >= row.size) {
-            row.add(null)
-        }
-        return row[x] ?: generator(x, y).also { row[x] = it }
-    }
+/**
+ * A player for simulated games. Bots are shared by every thread of the
+ * simulation, so they must not hold state between moves.
+ *
+ * @since 0.5
+ */
+public interface Bot {
 
-    fun set(x: Int, y: Int, value: T) {
-        while (y >= items.size) {
-            items.add(mutableListOf())
-        }
-        val row = items[y]
-        while (x >= row.size) {
-            row.add(null)
-        }
-        row[x] = value
-    }
+    /**
+     * Pick the combination to make next.
+     *
+     * @param board  the board, which always has at least one combination.
+     * @param random random source for the decisions of the bot.
+     * @return the combination to make.
+     */
+    Bounds choose(Board board, RandomSource random);
 }
@@ -0,0 +1,86 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.simulator;
+
+import es.danirod.rectball.model.Board;
+import es.danirod.rectball.model.Bounds;
+import es.danirod.rectball.model.RandomSource;
+import es.danirod.rectball.model.ScoringRules;
+import es.danirod.rectball.model.solver.Solver;
+
+/**
+ * The bots that come with the simulator.
+ *
+ * @since 0.5
+ */
+public final class Bots {
+
+    private Bots() {
+
+    }
+
+    /** Always makes the first combination found. */
+    public static final Bot FIRST = (board, random) -> board.getAnalysis().getCombination();
+
+    /** Always makes the biggest combination. */
+    public static final Bot BEST = (board, random) -> board.getAnalysis().getBestCombination();
+
+    /** Makes any combination. */
+    public static final Bot RANDOM = (board, random) -> board.getAnalysis().pickCombination(random);
+
+    /**
+     * Get a bot by its name, as given in the command line.
+     *
+     * @param name  first, best, random or lookahead.
+     * @param rules the rules of the games the bot plays, for the bots that
+     *              score the moves themselves.
+     * @return the bot.
+     */
+    public static Bot forName(String name, ScoringRules rules) {
+        switch (name) {
+            case "first":
+                return FIRST;
+            case "best":
+                return BEST;
+            case "random":
+                return RANDOM;
+            case "lookahead":
+                return new SolverBot(rules, 2, 4);
+            default:
+                throw new IllegalArgumentException("Unknown bot: " + name);
+        }
+    }
+
+    /**
+     * Uses a solver to look some moves ahead. Solvers can only be used by a
+     * thread at a time, so every thread of the simulation has its own. The
+     * solver has no time budget, so that games can be played again.
+     */
+    static final class SolverBot implements Bot {
+
+        private final ThreadLocal<Solver> solvers;
+
+        SolverBot(final ScoringRules rules, final int depth, final int samples) {
+            solvers = ThreadLocal.withInitial(() -> new Solver(rules, depth, samples, 0));
+        }
+
+        @Override
+        public Bounds choose(Board board, RandomSource random) {
+            return solvers.get().solve(board, random).getMove();
+        }
+    }
+}
@@ -0,0 +1,293 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.simulator;
+
+import es.danirod.rectball.model.GameTimer;
+import es.danirod.rectball.model.RandomSource;
+import es.danirod.rectball.model.ScoringRules;
+import es.danirod.rectball.model.SplitMix64;
+
+/**
+ * A slice of the games of a {@link BatchEnvironment}. The shard owns the
+ * state of its games, kept as arrays of primitives with an entry per game,
+ * so a thread stepping a shard never touches the memory of another shard.
+ *
+ * The colors of a game are a mask per color, as in a packed bitboard, and
+ * the rules are the ones of {@link es.danirod.rectball.model.HeadlessGame}
+ * and {@link es.danirod.rectball.model.BoardGenerator}, using the random
+ * numbers in the same order, so a game played here with a seed gives the
+ * same boards and scores as a headless game with the same seed.
+ */
+final class EnvironmentShard {
+
+    private final BatchEnvironment env;
+
+    /** Index of the first game of the shard in the batch. */
+    final int offset;
+
+    final int count;
+
+    private final int size;
+
+    private final int colors;
+
+    private final long rowMask;
+
+    private final ScoringRules rules;
+
+    /** Color masks, indexed by game and then color. */
+    private final long[] masks;
+
+    private final int[] scores;
+
+    /** Seconds left in the timer. */
+    private final float[] seconds;
+
+    private final float[] elapsed;
+
+    private final int[] combinations;
+
+    private final boolean[] done;
+
+    private final boolean[] timedOut;
+
+    private final RandomSource[] randoms;
+
+    EnvironmentShard(BatchEnvironment env, int offset, int count) {
+        this.env = env;
+        this.offset = offset;
+        this.count = count;
+        this.size = env.getBoardSize();
+        this.colors = env.getColors();
+        this.rowMask = (1L << size) - 1;
+        this.rules = env.getRules();
+        this.masks = new long[count * colors];
+        this.scores = new int[count];
+        this.seconds = new float[count];
+        this.elapsed = new float[count];
+        this.combinations = new int[count];
+        this.done = new boolean[count];
+        this.timedOut = new boolean[count];
+        this.randoms = new RandomSource[count];
+    }
+
+    void reset(int game, long seed) {
+        // Same sources as GameState.setSeed().
+        RandomSource random = new SplitMix64(seed);
+        randoms[game] = random.split();
+        scores[game] = 0;
+        seconds[game] = GameTimer.SECONDS;
+        elapsed[game] = 0;
+        combinations[game] = 0;
+        done[game] = false;
+        timedOut[game] = false;
+        fill(game, 0, 0, size - 1, size - 1);
+    }
+
+    /**
+     * Think for the move time and then make a move, as a bot does in a
+     * simulation. Moves that are not a combination give no score, but the
+     * time still passes. Finished games are not changed.
+     *
+     * @return the score given by the move.
+     */
+    int step(int game, int action) {
+        if (done[game])
+            return 0;
+
+        // HeadlessGame.advance()
+        float delta = env.getMoveTime();
+        float before = seconds[game];
+        float after = Math.min(before - delta, GameTimer.SECONDS);
+        if (after < 0) {
+            seconds[game] = 0;
+            elapsed[game] += before;
+            done[game] = true;
+            timedOut[game] = true;
+            return 0;
+        }
+        seconds[game] = after;
+        elapsed[game] += delta;
+
+        int reward = 0;
+        if (action >= 0 && action < env.corners.length && color(game * colors, env.corners[action]) >= 0) {
+            reward = select(game, action);
+        }
+        if (elapsed[game] >= env.getMaxTime())
+            done[game] = true;
+        return reward;
+    }
+
+    /** HeadlessGame.select(), for a move known to be a combination. */
+    private int select(int game, int action) {
+        int base = game * colors;
+        int best = -1, bestArea = 0, count = 0;
+        for (int a = 0; a < env.corners.length; a++) {
+            if (color(base, env.corners[a]) >= 0) {
+                count++;
+                if (env.areas[a] > bestArea) {
+                    best = a;
+                    bestArea = env.areas[a];
+                }
+            }
+        }
+
+        // ScoreCalculator.calculate()
+        int score = env.areas[action];
+        if (action == best)
+            score = Math.round((float) score * rules.getBestMultiplier(count));
+        boolean perfect = action == env.perfect;
+        if (perfect)
+            score = Math.round((float) score * rules.getPerfectMultiplier());
+        scores[game] += score;
+        combinations[game]++;
+
+        // GameState.getTimeBonus()
+        float timer = seconds[game];
+        float bonus = perfect ? GameTimer.SECONDS - timer : rules.getTimeBonus() + score / rules.getScorePerSecond();
+        seconds[game] = Math.min(timer + bonus, GameTimer.SECONDS);
+
+        // GameState.regenerate()
+        fill(game, env.minX[action], env.minY[action], env.maxX[action], env.maxY[action]);
+        int first = -1;
+        count = 0;
+        for (int a = 0; a < env.corners.length && count < 2; a++) {
+            if (color(base, env.corners[a]) >= 0) {
+                if (count++ == 0)
+                    first = a;
+            }
+        }
+        if (count == 1 && first == action)
+            fill(game, 0, 0, size - 1, size - 1);
+        return score;
+    }
+
+    /** @return the color of the four corners, or -1 if they don't match. */
+    private int color(int base, long corners) {
+        for (int c = 0; c < colors; c++) {
+            if ((masks[base + c] & corners) == corners)
+                return c;
+        }
+        return -1;
+    }
+
+    /** BoardGenerator.fill() */
+    private void fill(int game, int minX, int minY, int maxX, int maxY) {
+        RandomSource random = randoms[game];
+        paint(game, random, minX, minY, maxX, maxY);
+        if (!hasAnyCombination(game)) {
+            int cols = maxX - minX + 1, rows = maxY - minY + 1;
+            if (cols >= 2 && rows >= 2) {
+                int left = random.nextInt(cols);
+                int right = random.nextInt(cols - 1);
+                if (right >= left) right++;
+                int bottom = random.nextInt(rows);
+                int top = random.nextInt(rows - 1);
+                if (top >= bottom) top++;
+
+                int color = random.nextInt(colors);
+                setColor(game, minX + left, minY + bottom, color);
+                setColor(game, minX + left, minY + top, color);
+                setColor(game, minX + right, minY + bottom, color);
+                setColor(game, minX + right, minY + top, color);
+            } else {
+                do {
+                    paint(game, random, minX, minY, maxX, maxY);
+                } while (!hasAnyCombination(game));
+            }
+        }
+    }
+
+    private void paint(int game, RandomSource random, int minX, int minY, int maxX, int maxY) {
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                setColor(game, x, y, random.nextInt(colors));
+            }
+        }
+    }
+
+    private void setColor(int game, int x, int y, int color) {
+        int base = game * colors;
+        long bit = 1L << (y * size + x);
+        for (int c = 0; c < colors; c++) {
+            masks[base + c] &= ~bit;
+        }
+        masks[base + color] |= bit;
+    }
+
+    /** Two rows sharing color in two columns are a combination. */
+    private boolean hasAnyCombination(int game) {
+        int base = game * colors;
+        for (int c = 0; c < colors; c++) {
+            long mask = masks[base + c];
+            for (int y = 0; y < size - 1; y++) {
+                long row = (mask >>> (y * size)) & rowMask;
+                if (Long.bitCount(row) < 2)
+                    continue;
+                for (int top = y + 1; top < size; top++) {
+                    if (Long.bitCount(row & (mask >>> (top * size))) >= 2)
+                        return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Set the bit of every valid move of a game in a bit set. */
+    void validActions(int game, long[] out, int from) {
+        int base = game * colors;
+        for (int a = 0; a < env.corners.length; a++) {
+            if (color(base, env.corners[a]) >= 0)
+                out[from + (a >>> 6)] |= 1L << a;
+        }
+    }
+
+    void observe(int game, byte[] out, int from) {
+        int base = game * colors;
+        for (int c = 0; c < colors; c++) {
+            long mask = masks[base + c];
+            while (mask != 0) {
+                out[from + Long.numberOfTrailingZeros(mask)] = (byte) c;
+                mask &= mask - 1;
+            }
+        }
+    }
+
+    int getScore(int game) {
+        return scores[game];
+    }
+
+    float getElapsedTime(int game) {
+        return elapsed[game];
+    }
+
+    float getSeconds(int game) {
+        return seconds[game];
+    }
+
+    int getCombinations(int game) {
+        return combinations[game];
+    }
+
+    boolean isDone(int game) {
+        return done[game];
+    }
+
+    boolean isTimedOut(int game) {
+        return timedOut[game];
+    }
+}
@@ -0,0 +1,79 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.simulator;
+
+/**
+ * The outcome of a simulated game.
+ *
+ * @since 0.5
+ */
+public final class GameResult {
+
+    final long seed;
+
+    final int score;
+
+    /** How many seconds the game lasted. */
+    final float time;
+
+    final int combinations;
+
+    final int perfects;
+
+    final int hints;
+
+    /** False if the game was stopped because it was too long. */
+    final boolean timedOut;
+
+    GameResult(long seed, int score, float time, int combinations, int perfects, int hints, boolean timedOut) {
+        this.seed = seed;
+        this.score = score;
+        this.time = time;
+        this.combinations = combinations;
+        this.perfects = perfects;
+        this.hints = hints;
+        this.timedOut = timedOut;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public float getTime() {
+        return time;
+    }
+
+    public int getCombinations() {
+        return combinations;
+    }
+
+    public int getPerfects() {
+        return perfects;
+    }
+
+    public int getHints() {
+        return hints;
+    }
+
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+}
@@ -0,0 +1,71 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.simulator;
+
+import java.io.PrintWriter;
+import java.util.Locale;
+
+/**
+ * Writes the result of every game, either as CSV or as a JSON array.
+ *
+ * @since 0.5
+ */
+final class ResultWriter {
+
+    private static final String[] COLUMNS = {
+            "seed", "score", "time", "combinations", "perfects", "hints", "timedOut"
+    };
+
+    private ResultWriter() {
+
+    }
+
+    static void write(String format, GameResult[] results, PrintWriter out) {
+        switch (format) {
+            case "csv":
+                writeCsv(results, out);
+                break;
+            case "json":
+                writeJson(results, out);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown format: " + format);
+        }
+        out.flush();
+    }
+
+    private static void writeCsv(GameResult[] results, PrintWriter out) {
+        out.println(String.join(",", COLUMNS));
+        for (GameResult r : results) {
+            out.println(String.format(Locale.ROOT, "%016x,%d,%.3f,%d,%d,%d,%b",
+                    r.seed, r.score, r.time, r.combinations, r.perfects, r.hints, r.timedOut));
+        }
+    }
+
+    private static void writeJson(GameResult[] results, PrintWriter out) {
+        out.println("[");
+        for (int i = 0; i < results.length; i++) {
+            GameResult r = results[i];
+            out.print(String.format(Locale.ROOT,
+                    "  {\"%s\": \"%016x\", \"%s\": %d, \"%s\": %.3f, \"%s\": %d, \"%s\": %d, \"%s\": %d, \"%s\": %b}",
+                    COLUMNS[0], r.seed, COLUMNS[1], r.score, COLUMNS[2], r.time, COLUMNS[3], r.combinations,
+                    COLUMNS[4], r.perfects, COLUMNS[5], r.hints, COLUMNS[6], r.timedOut));
+            out.println(i < results.length - 1 ? "," : "");
+        }
+        out.println("]");
+    }
+}
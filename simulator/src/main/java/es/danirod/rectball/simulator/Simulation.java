@@ -0,0 +1,134 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.simulator;
+
+import es.danirod.rectball.model.BallColor;
+import es.danirod.rectball.model.Bounds;
+import es.danirod.rectball.model.HeadlessGame;
+import es.danirod.rectball.model.LocalStatistics;
+import es.danirod.rectball.model.RandomSource;
+import es.danirod.rectball.model.ScoringRules;
+import es.danirod.rectball.model.SplitMix64;
+import es.danirod.rectball.model.replay.ReplayRecorder;
+
+/**
+ * Plays a game from start to end using a bot. The bot takes some time to
+ * think every move, and sometimes it presses the help button and makes the
+ * combination shown instead of its own. The timer follows the rules of the
+ * game, so the game is over when the bot is too slow for the time it earns.
+ *
+ * @since 0.5
+ */
+public class Simulation {
+
+    private final Bot bot;
+
+    private final int boardSize;
+
+    private final int colors;
+
+    /** Average seconds that the bot thinks before every move. */
+    private final float moveTime;
+
+    /** The think time is moveTime +/- this fraction of moveTime. */
+    private final float jitter;
+
+    /** Probability of pressing the help button before a move. */
+    private final float hintRate;
+
+    /** Games are stopped after this number of seconds. */
+    private final float maxTime;
+
+    private final ScoringRules rules;
+
+    public Simulation(Bot bot, int boardSize, float moveTime, float jitter, float hintRate, float maxTime) {
+        this(bot, boardSize, moveTime, jitter, hintRate, maxTime, ScoringRules.DEFAULT);
+    }
+
+    public Simulation(Bot bot, int boardSize, float moveTime, float jitter, float hintRate, float maxTime,
+                      ScoringRules rules) {
+        this(bot, boardSize, BallColor.DEFAULT_COUNT, moveTime, jitter, hintRate, maxTime, rules);
+    }
+
+    public Simulation(Bot bot, int boardSize, int colors, float moveTime, float jitter, float hintRate,
+                      float maxTime, ScoringRules rules) {
+        this.rules = rules;
+        this.bot = bot;
+        this.boardSize = boardSize;
+        this.colors = colors;
+        this.moveTime = moveTime;
+        this.jitter = jitter;
+        this.hintRate = hintRate;
+        this.maxTime = maxTime;
+    }
+
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    public int getColors() {
+        return colors;
+    }
+
+    public GameResult play(long seed) {
+        return play(seed, null);
+    }
+
+    /**
+     * Play a game.
+     *
+     * @param seed     the seed of the game.
+     * @param recorder if not null, records the game as a replay.
+     * @return the outcome of the game.
+     */
+    public GameResult play(long seed, ReplayRecorder recorder) {
+        HeadlessGame game = new HeadlessGame(boardSize, colors, seed, rules);
+        // The bot has its own random source, so that its decisions don't
+        // change the board the game would have with another bot.
+        RandomSource player = new SplitMix64(~seed);
+
+        boolean timedOut = false;
+        while (game.getState().getElapsedTime() < maxTime) {
+            float think = moveTime * (1f + jitter * (2f * player.nextFloat() - 1f));
+            if (game.advance(think) > 0) {
+                timedOut = true;
+                break;
+            }
+
+            Bounds move = null;
+            if (hintRate > 0 && player.nextFloat() < hintRate) {
+                move = game.hint();
+                if (move != null && recorder != null)
+                    recorder.hint(game.getState().getElapsedTime());
+            }
+            if (move == null) {
+                move = bot.choose(game.getState().getBoard(), player);
+            }
+            if (recorder != null)
+                recorder.select(game.getState().getElapsedTime(), move);
+            game.select(move);
+        }
+
+        game.finish();
+        if (recorder != null)
+            recorder.end(game.getState().getElapsedTime(), game.getState().getScore());
+
+        LocalStatistics stats = game.getState().getLocalStatistics();
+        return new GameResult(seed, game.getState().getScore(), game.getState().getElapsedTime(),
+                (int) stats.getCombinations(), (int) stats.getPerfects(), (int) stats.getHints(), timedOut);
+    }
+}
@@ -0,0 +1,98 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.simulator;
+
+import es.danirod.rectball.model.SplitMix64;
+import es.danirod.rectball.model.replay.ReplayFormat;
+import es.danirod.rectball.model.replay.ReplayRecorder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Plays a range of games, splitting the range in halves until it is small
+ * enough, so that idle threads of the pool can steal the other halves.
+ * Every game writes its result to its own slot of the results array.
+ *
+ * @since 0.5
+ */
+class SimulationTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Ranges with less games than this are played in a single task. */
+    private static final int THRESHOLD = 16;
+
+    private final Simulation simulation;
+
+    private final long seed;
+
+    private final GameResult[] results;
+
+    private final int from, to;
+
+    /** If not null, every game is saved as a replay in this directory. */
+    private final Path replays;
+
+    SimulationTask(Simulation simulation, long seed, GameResult[] results, int from, int to, Path replays) {
+        this.simulation = simulation;
+        this.seed = seed;
+        this.results = results;
+        this.from = from;
+        this.to = to;
+        this.replays = replays;
+    }
+
+    /**
+     * The seed of a game depends only on the seed of the simulation and the
+     * number of the game, so any game can be played again on its own.
+     */
+    static long seedFor(long seed, int game) {
+        return new SplitMix64(seed + game).nextLong();
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= THRESHOLD) {
+            for (int i = from; i < to; i++) {
+                results[i] = play(seedFor(seed, i));
+            }
+        } else {
+            int middle = (from + to) >>> 1;
+            invokeAll(new SimulationTask(simulation, seed, results, from, middle, replays),
+                    new SimulationTask(simulation, seed, results, middle, to, replays));
+        }
+    }
+
+    private GameResult play(long gameSeed) {
+        if (replays == null)
+            return simulation.play(gameSeed);
+
+        ReplayRecorder recorder = new ReplayRecorder(gameSeed, simulation.getBoardSize(), simulation.getColors());
+        GameResult result = simulation.play(gameSeed, recorder);
+        try {
+            Path file = replays.resolve(String.format("%016x.rbr", gameSeed));
+            Files.write(file, ReplayFormat.encode(recorder.toReplay()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result;
+    }
+}
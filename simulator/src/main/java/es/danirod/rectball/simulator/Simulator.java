@@ -0,0 +1,118 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.simulator;
+
+import es.danirod.rectball.model.BallColor;
+import es.danirod.rectball.model.ScoringRules;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Plays a number of games using a bot, on every core of the computer, and
+ * writes the result of every game. A summary is printed on stderr.
+ *
+ * <pre>
+ * Simulator [--games N] [--bot first|best|random|lookahead] [--seed S]
+ *           [--threads N] [--format csv|json|none] [--out FILE]
+ *           [--board-size N] [--colors N] [--move-time SECONDS] [--jitter FRACTION]
+ *           [--hint-rate P] [--max-time SECONDS] [--replays DIRECTORY]
+ * </pre>
+ *
+ * @since 0.5
+ */
+public class Simulator {
+
+    public static void main(String[] args) throws IOException {
+        int games = 1000;
+        String botName = "best";
+        long seed = 0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String format = "csv";
+        Path out = null;
+        int boardSize = 6;
+        int colors = BallColor.DEFAULT_COUNT;
+        float moveTime = 6f, jitter = 0.5f, hintRate = 0f, maxTime = 600f;
+        Path replays = null;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--games": games = Integer.parseInt(args[++i]); break;
+                    case "--bot": botName = args[++i]; break;
+                    case "--seed": seed = Long.parseLong(args[++i]); break;
+                    case "--threads": threads = Integer.parseInt(args[++i]); break;
+                    case "--format": format = args[++i]; break;
+                    case "--out": out = Paths.get(args[++i]); break;
+                    case "--board-size": boardSize = Integer.parseInt(args[++i]); break;
+                    case "--colors": colors = Integer.parseInt(args[++i]); break;
+                    case "--move-time": moveTime = Float.parseFloat(args[++i]); break;
+                    case "--jitter": jitter = Float.parseFloat(args[++i]); break;
+                    case "--hint-rate": hintRate = Float.parseFloat(args[++i]); break;
+                    case "--max-time": maxTime = Float.parseFloat(args[++i]); break;
+                    case "--replays": replays = Paths.get(args[++i]); break;
+                    default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            if (games < 0 || threads < 1 || boardSize < 2 || moveTime <= 0)
+                throw new IllegalArgumentException("Invalid options");
+            BallColor.checkCount(colors);
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: Simulator [--games N] [--bot first|best|random|lookahead] [--seed S] [--threads N]");
+            System.err.println("                 [--format csv|json|none] [--out FILE] [--board-size N] [--colors N] [--move-time SECONDS]");
+            System.err.println("                 [--jitter FRACTION] [--hint-rate P] [--max-time SECONDS] [--replays DIRECTORY]");
+            System.exit(2);
+            return;
+        }
+
+        ScoringRules rules = ScoringRules.DEFAULT;
+        Bot bot = Bots.forName(botName, rules);
+        Simulation simulation = new Simulation(bot, boardSize, colors, moveTime, jitter, hintRate, maxTime, rules);
+        if (replays != null)
+            Files.createDirectories(replays);
+
+        GameResult[] results = new GameResult[games];
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new SimulationTask(simulation, seed, results, 0, games, replays));
+        } finally {
+            pool.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        if (!format.equals("none")) {
+            PrintWriter writer = out == null
+                    ? new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                    : new PrintWriter(Files.newBufferedWriter(out, StandardCharsets.UTF_8));
+            ResultWriter.write(format, results, writer);
+            if (out != null)
+                writer.close();
+        }
+
+        System.err.printf("%d games with bot %s in %.2f s (%.0f games/s, %d threads)%n",
+                games, botName, seconds, games / Math.max(seconds, 1e-9), threads);
+        System.err.println(new Summary(results));
+    }
+}
@@ -0,0 +1,91 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.simulator;
+
+import java.util.Arrays;
+
+/**
+ * Distribution of the score and the length of a set of games.
+ *
+ * @since 0.5
+ */
+public final class Summary {
+
+    private final int games;
+
+    private final int[] scores;
+
+    private final float[] times;
+
+    private final double meanScore, meanTime;
+
+    public Summary(GameResult[] results) {
+        games = results.length;
+        scores = new int[games];
+        times = new float[games];
+        double totalScore = 0, totalTime = 0;
+        for (int i = 0; i < games; i++) {
+            scores[i] = results[i].score;
+            times[i] = results[i].time;
+            totalScore += scores[i];
+            totalTime += times[i];
+        }
+        Arrays.sort(scores);
+        Arrays.sort(times);
+        meanScore = games == 0 ? 0 : totalScore / games;
+        meanTime = games == 0 ? 0 : totalTime / games;
+    }
+
+    public int getGames() {
+        return games;
+    }
+
+    public double getMeanScore() {
+        return meanScore;
+    }
+
+    public double getMeanTime() {
+        return meanTime;
+    }
+
+    /**
+     * @param p the percentile, between 0 and 100.
+     * @return the score at the given percentile.
+     */
+    public int getScorePercentile(double p) {
+        return games == 0 ? 0 : scores[index(p)];
+    }
+
+    /**
+     * @param p the percentile, between 0 and 100.
+     * @return the length of the game at the given percentile, in seconds.
+     */
+    public float getTimePercentile(double p) {
+        return games == 0 ? 0 : times[index(p)];
+    }
+
+    private int index(double p) {
+        return (int) Math.min(games - 1, Math.max(0, Math.round(p / 100.0 * (games - 1))));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("score mean %.1f p10 %d p50 %d p90 %d max %d, time mean %.1f s p10 %.1f p50 %.1f p90 %.1f max %.1f",
+                meanScore, getScorePercentile(10), getScorePercentile(50), getScorePercentile(90), getScorePercentile(100),
+                meanTime, getTimePercentile(10), getTimePercentile(50), getTimePercentile(90), getTimePercentile(100));
+    }
+}
@@ -0,0 +1,224 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.simulator;
+
+import es.danirod.rectball.model.BallColor;
+import es.danirod.rectball.model.ScoringRules;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Simulates games for every point of a grid of scoring rules and prints
+ * the distribution of the score and the length of the games for each one
+ * as CSV. Every point plays the same seeds, so the differences between
+ * points come from the rules and not from luck.
+ *
+ * Every list of values is comma separated. Every value of the best
+ * multipliers is itself a list separated by slashes, for boards with one,
+ * two, three and more combinations: 1/1.1/1.2/1.3 are the multipliers of
+ * the game.
+ *
+ * <pre>
+ * Sweep [--games N] [--bot NAME] [--seed S] [--threads N] [--board-size N] [--colors N]
+ *       [--move-time SECONDS] [--jitter FRACTION] [--hint-rate P] [--max-time SECONDS]
+ *       [--best LIST] [--perfect LIST] [--hint LIST] [--time-bonus LIST]
+ *       [--score-per-second LIST] [--hint-penalty LIST]
+ * </pre>
+ *
+ * @since 0.5
+ */
+public class Sweep {
+
+    private static final String[] PARAMETERS = {
+            "best", "perfect", "hint", "timeBonus", "scorePerSecond", "hintPenalty"
+    };
+
+    public static void main(String[] args) {
+        int games = 10000;
+        String botName = "best";
+        long seed = 0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int boardSize = 6;
+        int colors = BallColor.DEFAULT_COUNT;
+        float moveTime = 6f, jitter = 0.5f, hintRate = 0f, maxTime = 600f;
+
+        // Values for every parameter, in the order of PARAMETERS. The values
+        // of the best multipliers are indices into bestMultipliers.
+        ScoringRules defaults = ScoringRules.DEFAULT;
+        List<float[]> bestMultipliers = new ArrayList<>();
+        bestMultipliers.add(defaults.getBestMultipliers());
+        float[][] grid = {
+                {0},
+                {defaults.getPerfectMultiplier()},
+                {defaults.getHintMultiplier()},
+                {defaults.getTimeBonus()},
+                {defaults.getScorePerSecond()},
+                {defaults.getHintPenalty()},
+        };
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--games": games = Integer.parseInt(args[++i]); break;
+                    case "--bot": botName = args[++i]; break;
+                    case "--seed": seed = Long.parseLong(args[++i]); break;
+                    case "--threads": threads = Integer.parseInt(args[++i]); break;
+                    case "--board-size": boardSize = Integer.parseInt(args[++i]); break;
+                    case "--colors": colors = Integer.parseInt(args[++i]); break;
+                    case "--move-time": moveTime = Float.parseFloat(args[++i]); break;
+                    case "--jitter": jitter = Float.parseFloat(args[++i]); break;
+                    case "--hint-rate": hintRate = Float.parseFloat(args[++i]); break;
+                    case "--max-time": maxTime = Float.parseFloat(args[++i]); break;
+                    case "--best": grid[0] = parseMultipliers(args[++i], bestMultipliers); break;
+                    case "--perfect": grid[1] = parseList(args[++i]); break;
+                    case "--hint": grid[2] = parseList(args[++i]); break;
+                    case "--time-bonus": grid[3] = parseList(args[++i]); break;
+                    case "--score-per-second": grid[4] = parseList(args[++i]); break;
+                    case "--hint-penalty": grid[5] = parseList(args[++i]); break;
+                    default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            if (games < 1 || threads < 1 || boardSize < 2 || moveTime <= 0)
+                throw new IllegalArgumentException("Invalid options");
+            BallColor.checkCount(colors);
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: Sweep [--games N] [--bot NAME] [--seed S] [--threads N] [--board-size N] [--colors N]");
+            System.err.println("             [--move-time SECONDS] [--jitter FRACTION] [--hint-rate P] [--max-time SECONDS]");
+            System.err.println("             [--best LIST] [--perfect LIST] [--hint LIST] [--time-bonus LIST]");
+            System.err.println("             [--score-per-second LIST] [--hint-penalty LIST]");
+            System.exit(2);
+            return;
+        }
+
+        List<float[]> points = new ArrayList<>();
+        combine(grid, 0, new float[grid.length], points);
+
+        // Every point is a task that splits its games in smaller tasks, and
+        // all of them run on the same pool, so there are no idle threads
+        // until the last games of the last point.
+        final List<GameResult[]> results = new ArrayList<>();
+        final List<SimulationTask> tasks = new ArrayList<>();
+        for (float[] point : points) {
+            // Bots that score the moves must use the rules of the point.
+            ScoringRules rules = toRules(point, bestMultipliers);
+            Simulation simulation = new Simulation(Bots.forName(botName, rules), boardSize, colors,
+                    moveTime, jitter, hintRate, maxTime, rules);
+            GameResult[] pointResults = new GameResult[games];
+            results.add(pointResults);
+            tasks.add(new SimulationTask(simulation, seed, pointResults, 0, games, null));
+        }
+
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println(String.join(",", PARAMETERS)
+                + ",games,scoreMean,scoreP10,scoreP50,scoreP90,timeMean,timeP10,timeP50,timeP90");
+        for (int i = 0; i < points.size(); i++) {
+            float[] point = points.get(i);
+            Summary summary = new Summary(results.get(i));
+            StringBuilder row = new StringBuilder();
+            row.append(formatMultipliers(bestMultipliers.get((int) point[0]))).append(',');
+            for (int p = 1; p < point.length; p++) {
+                row.append(String.format(Locale.ROOT, "%.3f,", point[p]));
+            }
+            row.append(String.format(Locale.ROOT, "%d,%.2f,%d,%d,%d,%.2f,%.2f,%.2f,%.2f",
+                    summary.getGames(), summary.getMeanScore(), summary.getScorePercentile(10),
+                    summary.getScorePercentile(50), summary.getScorePercentile(90), summary.getMeanTime(),
+                    summary.getTimePercentile(10), summary.getTimePercentile(50), summary.getTimePercentile(90)));
+            System.out.println(row);
+        }
+
+        long total = (long) games * points.size();
+        System.err.printf("%d points, %d games in %.2f s (%.0f games/s, %d threads)%n",
+                points.size(), total, seconds, total / Math.max(seconds, 1e-9), threads);
+    }
+
+    private static ScoringRules toRules(float[] point, List<float[]> bestMultipliers) {
+        return ScoringRules.DEFAULT
+                .withBestMultipliers(bestMultipliers.get((int) point[0]))
+                .withPerfectMultiplier(point[1])
+                .withHintMultiplier(point[2])
+                .withTimeBonus(point[3], point[4])
+                .withHintPenalty(point[5]);
+    }
+
+    private static void combine(float[][] grid, int parameter, float[] point, List<float[]> points) {
+        if (parameter == grid.length) {
+            points.add(point.clone());
+            return;
+        }
+        for (float value : grid[parameter]) {
+            point[parameter] = value;
+            combine(grid, parameter + 1, point, points);
+        }
+    }
+
+    /**
+     * Parse a list of sets of multipliers, such as 1/1.1/1.2,1/1.2/1.4. The
+     * sets are replaced by the given list, and their indices are returned.
+     */
+    private static float[] parseMultipliers(String list, List<float[]> multipliers) {
+        String[] parts = list.split(",");
+        multipliers.clear();
+        float[] indices = new float[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            String[] values = parts[i].split("/");
+            float[] set = new float[values.length];
+            for (int v = 0; v < values.length; v++) {
+                set[v] = Float.parseFloat(values[v].trim());
+            }
+            multipliers.add(set);
+            indices[i] = i;
+        }
+        return indices;
+    }
+
+    private static String formatMultipliers(float[] multipliers) {
+        StringBuilder builder = new StringBuilder();
+        for (float multiplier : multipliers) {
+            if (builder.length() > 0)
+                builder.append('/');
+            builder.append(multiplier);
+        }
+        return builder.toString();
+    }
+
+    private static float[] parseList(String list) {
+        String[] parts = list.split(",");
+        float[] values = new float[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Float.parseFloat(parts[i].trim());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,224 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.tools;
+
+import es.danirod.rectball.model.BallColor;
+import es.danirod.rectball.model.Board;
+import es.danirod.rectball.model.BoardAnalysis;
+import es.danirod.rectball.model.Bounds;
+import es.danirod.rectball.model.CombinationFinder;
+import es.danirod.rectball.model.IncrementalCombinationFinder;
+import es.danirod.rectball.model.RandomSource;
+import es.danirod.rectball.model.SplitMix64;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Compares the combination finders against the original finder, which
+ * tested every ball against every other ball of the same row and column.
+ * Random boards of every size and number of colors are analysed by both,
+ * and the list of combinations, their count, the first one and the best
+ * one have to be the same. Then random regions of every board are painted
+ * again, and the incremental finder and the analysis of the board have to
+ * keep up. The exit code is 1 if any board differs.
+ *
+ * <pre>
+ * CheckFinders [--boards N] [--updates N] [--max-size N] [--seed S]
+ * </pre>
+ *
+ * @since 0.5
+ */
+public class CheckFinders {
+
+    private static final BallColor[] COLORS = BallColor.values();
+
+    /** How many differences are printed before the rest are just counted. */
+    private static final int MAX_PRINTED = 10;
+
+    private static final String USAGE = "Usage: CheckFinders [--boards N] [--updates N] [--max-size N] [--seed S]";
+
+    private static int failures;
+
+    public static void main(String[] args) {
+        int boards = 3000, updates = 10, maxSize = 20;
+        long seed = 1L;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--boards":
+                    boards = Integer.parseInt(args[++i]);
+                    break;
+                case "--updates":
+                    updates = Integer.parseInt(args[++i]);
+                    break;
+                case "--max-size":
+                    maxSize = Integer.parseInt(args[++i]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    System.err.println(USAGE);
+                    System.exit(2);
+                    return;
+            }
+        }
+        if (boards < 1 || updates < 0 || maxSize < 2) {
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        RandomSource random = new SplitMix64(seed);
+        long combinations = 0;
+        for (int i = 0; i < boards; i++) {
+            int size = 2 + random.nextInt(maxSize - 1);
+            int colors = BallColor.MIN_COUNT + random.nextInt(BallColor.MAX_COUNT - BallColor.MIN_COUNT + 1);
+            Board board = randomBoard(size, colors, random);
+            combinations += check("board " + i, board);
+
+            IncrementalCombinationFinder incremental = new IncrementalCombinationFinder(board);
+            for (int u = 0; u < updates; u++) {
+                Bounds region = randomRegion(size, random);
+                paint(board, region, random);
+                incremental.update(region);
+                String name = "board " + i + " update " + u + " " + describe(region);
+                List<Bounds> expected = findReference(board);
+                compare(name, "incremental list", expected, incremental.getPossibleBounds());
+                compare(name, "incremental first", expected.isEmpty() ? null : expected.get(0), incremental.getCombination());
+                combinations += check(name, board);
+            }
+        }
+
+        System.out.printf("%d boards, %d combinations: %d different%n", boards, combinations, failures);
+        System.exit(failures > 0 ? 1 : 0);
+    }
+
+    /**
+     * Paint every ball of a board at random. Unlike Board.randomize(), the
+     * board may end up without combinations.
+     */
+    private static Board randomBoard(int size, int colors, RandomSource random) {
+        Board board = new Board(size, colors, random.split());
+        paint(board, new Bounds(0, 0, size - 1, size - 1), random);
+        return board;
+    }
+
+    private static void paint(Board board, Bounds region, RandomSource random) {
+        for (int x = region.minX; x <= region.maxX; x++) {
+            for (int y = region.minY; y <= region.maxY; y++) {
+                board.setColor(x, y, COLORS[random.nextInt(board.getColors())]);
+            }
+        }
+    }
+
+    /** A region of any size and place inside the board, even a single ball. */
+    private static Bounds randomRegion(int size, RandomSource random) {
+        int x1 = random.nextInt(size), x2 = random.nextInt(size);
+        int y1 = random.nextInt(size), y2 = random.nextInt(size);
+        return new Bounds(Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2), Math.max(y1, y2));
+    }
+
+    /**
+     * Check a board against the reference finder.
+     *
+     * @return how many combinations the board has.
+     */
+    private static int check(String name, Board board) {
+        List<Bounds> expected = findReference(board);
+        Bounds first = expected.isEmpty() ? null : expected.get(0);
+        Bounds best = findBest(expected);
+
+        CombinationFinder finder = CombinationFinder.create(board);
+        compare(name, "finder list", expected, finder.getPossibleBounds());
+        compare(name, "finder first", first, finder.getCombination());
+        compare(name, "finder best", best, finder.getBestCombination());
+        compare(name, "hasAnyCombination", !expected.isEmpty(), CombinationFinder.hasAnyCombination(board));
+
+        BoardAnalysis analysis = board.getAnalysis();
+        compare(name, "analysis count", expected.size(), analysis.getCount());
+        compare(name, "analysis first", first, analysis.getCombination());
+        compare(name, "analysis best", best, analysis.getBestCombination());
+        compare(name, "analysis list", expected, analysis.getPossibleBounds());
+        return expected.size();
+    }
+
+    static void compare(String name, String what, Object expected, Object actual) {
+        if (Objects.equals(expected, actual))
+            return;
+        if (++failures <= MAX_PRINTED)
+            System.out.println(name + ": " + what + " is " + describe(actual) + ", expected " + describe(expected));
+    }
+
+    /** Bounds don't have a toString(), so they are printed as corners. */
+    private static String describe(Object value) {
+        if (value instanceof Bounds) {
+            Bounds bounds = (Bounds) value;
+            return "(" + bounds.minX + "," + bounds.minY + ")-(" + bounds.maxX + "," + bounds.maxY + ")";
+        }
+        if (value instanceof List) {
+            StringBuilder builder = new StringBuilder("[");
+            for (Object item : (List<?>) value) {
+                if (builder.length() > 1)
+                    builder.append(", ");
+                builder.append(describe(item));
+            }
+            return builder.append("]").toString();
+        }
+        return String.valueOf(value);
+    }
+
+    /**
+     * The original finder. For every ball, every ball to its right with the
+     * same color is looked for, and then every pair of balls above both of
+     * them with the same color.
+     */
+    static List<Bounds> findReference(Board board) {
+        List<Bounds> bounds = new ArrayList<>();
+        int size = board.getSize();
+        for (int y = 0; y < size - 1; y++) {
+            for (int x = 0; x < size - 1; x++) {
+                BallColor refColor = board.getColor(x, y);
+                for (int row = x + 1; row < size; row++) {
+                    if (board.getColor(row, y) != refColor)
+                        continue;
+                    for (int col = y + 1; col < size; col++) {
+                        if (board.getColor(x, col) == refColor && board.getColor(row, col) == refColor) {
+                            bounds.add(new Bounds(x, y, row, col));
+                        }
+                    }
+                }
+            }
+        }
+        return bounds;
+    }
+
+    /** The first combination with the greatest area, like the original finder. */
+    static Bounds findBest(List<Bounds> bounds) {
+        Bounds best = null;
+        for (Bounds candidate : bounds)
+            if (best == null || area(candidate) > area(best))
+                best = candidate;
+        return best;
+    }
+
+    private static int area(Bounds bounds) {
+        return bounds.cols() * bounds.rows();
+    }
+}
@@ -0,0 +1,179 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.tools;
+
+import es.danirod.rectball.model.BallColor;
+import es.danirod.rectball.model.Board;
+import es.danirod.rectball.model.BoardAnalysis;
+import es.danirod.rectball.model.BoardGenerator;
+import es.danirod.rectball.model.Bounds;
+import es.danirod.rectball.model.CombinationFinder;
+import es.danirod.rectball.model.RandomSource;
+import es.danirod.rectball.model.SplitMix64;
+
+/**
+ * Compares the boards made by BoardGenerator with the boards made by the
+ * original generator, which painted the region again until the board had
+ * a combination. For every size of the region, the same boards are
+ * regenerated by both, and the number of combinations and the area of the
+ * best combination afterwards are compared using a two sample
+ * Kolmogorov-Smirnov test. The exit code is 1 if any of them differ.
+ *
+ * <pre>
+ * CompareGenerators [--samples N] [--size N] [--colors N] [--seed S]
+ * </pre>
+ *
+ * @since 0.5
+ */
+public class CompareGenerators {
+
+    private static final BallColor[] COLORS = BallColor.values();
+
+    /** Kolmogorov-Smirnov coefficient for a significance level of 0.001. */
+    private static final double KS_COEFFICIENT = 1.949;
+
+    private static final String USAGE = "Usage: CompareGenerators [--samples N] [--size N] [--colors N] [--seed S]";
+
+    public static void main(String[] args) {
+        int samples = 100000, size = 6, colors = BallColor.DEFAULT_COUNT;
+        long seed = 1L;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--samples":
+                    samples = Integer.parseInt(args[++i]);
+                    break;
+                case "--size":
+                    size = Integer.parseInt(args[++i]);
+                    break;
+                case "--colors":
+                    colors = Integer.parseInt(args[++i]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    System.err.println(USAGE);
+                    System.exit(2);
+                    return;
+            }
+        }
+        if (samples < 1 || size < 2 || colors < BallColor.MIN_COUNT || colors > BallColor.MAX_COUNT) {
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        RandomSource random = new SplitMix64(seed);
+        boolean different = false;
+        System.out.println("region,samples,old_attempts,planted,old_count,new_count,count_ks,"
+                + "old_area,new_area,area_ks,ks_limit,verdict");
+        for (int region = 2; region <= size; region++) {
+            different |= compare(size, colors, region, samples, random.split());
+        }
+        System.exit(different ? 1 : 0);
+    }
+
+    /**
+     * Regenerate square regions of the given size using both generators.
+     *
+     * @return true if the distributions differ.
+     */
+    private static boolean compare(int size, int colors, int region, int samples, RandomSource random) {
+        // Every pair of rows with every pair of columns.
+        int pairs = size * (size - 1) / 2;
+        int maxCount = pairs * pairs;
+        long[] oldCounts = new long[maxCount + 1], newCounts = new long[maxCount + 1];
+        long[] oldAreas = new long[size * size + 1], newAreas = new long[size * size + 1];
+        long attempts = 0;
+
+        BoardGenerator generator = new BoardGenerator(random.split());
+        RandomSource original = random.split();
+        Board base = new Board(size, colors, random.split());
+        Board oldBoard = new Board(size, colors, random.split());
+        Board newBoard = new Board(size, colors, random.split());
+        for (int i = 0; i < samples; i++) {
+            base.randomize();
+            int x = random.nextInt(size - region + 1);
+            int y = random.nextInt(size - region + 1);
+            Bounds bounds = new Bounds(x, y, x + region - 1, y + region - 1);
+
+            oldBoard.copyFrom(base);
+            attempts += fillOriginal(oldBoard, bounds, original);
+            count(oldBoard.getAnalysis(), oldCounts, oldAreas);
+
+            newBoard.copyFrom(base);
+            generator.fill(newBoard, bounds);
+            count(newBoard.getAnalysis(), newCounts, newAreas);
+        }
+
+        double limit = KS_COEFFICIENT * Math.sqrt(2.0 / samples);
+        double countKs = kolmogorovSmirnov(oldCounts, newCounts, samples);
+        double areaKs = kolmogorovSmirnov(oldAreas, newAreas, samples);
+        boolean different = countKs > limit || areaKs > limit;
+        System.out.printf("%dx%d,%d,%.3f,%.4f,%.3f,%.3f,%.4f,%.3f,%.3f,%.4f,%.4f,%s%n",
+                region, region, samples, (double) attempts / samples,
+                (double) generator.getPlantedCount() / samples,
+                mean(oldCounts, samples), mean(newCounts, samples), countKs,
+                mean(oldAreas, samples), mean(newAreas, samples), areaKs,
+                limit, different ? "DIFFERENT" : "same");
+        return different;
+    }
+
+    /**
+     * The original generator: paint the region at random until there is a
+     * combination in the board.
+     *
+     * @return how many times the region was painted.
+     */
+    private static int fillOriginal(Board board, Bounds region, RandomSource random) {
+        int attempts = 0;
+        do {
+            attempts++;
+            for (int x = region.minX; x <= region.maxX; x++) {
+                for (int y = region.minY; y <= region.maxY; y++) {
+                    board.setColor(x, y, COLORS[random.nextInt(board.getColors())]);
+                }
+            }
+        } while (!CombinationFinder.hasAnyCombination(board));
+        return attempts;
+    }
+
+    private static void count(BoardAnalysis analysis, long[] counts, long[] areas) {
+        Bounds best = analysis.getBestCombination();
+        counts[analysis.getCount()]++;
+        areas[best.cols() * best.rows()]++;
+    }
+
+    private static double mean(long[] histogram, int samples) {
+        double sum = 0;
+        for (int value = 0; value < histogram.length; value++)
+            sum += (double) value * histogram[value];
+        return sum / samples;
+    }
+
+    /** Greatest distance between the cumulative distributions of two histograms. */
+    private static double kolmogorovSmirnov(long[] a, long[] b, int samples) {
+        long sumA = 0, sumB = 0, distance = 0;
+        for (int value = 0; value < a.length; value++) {
+            sumA += a[value];
+            sumB += b[value];
+            distance = Math.max(distance, Math.abs(sumA - sumB));
+        }
+        return (double) distance / samples;
+    }
+}
@@ -0,0 +1,177 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.tools;
+
+import es.danirod.rectball.model.BallColor;
+import es.danirod.rectball.model.RandomSource;
+import es.danirod.rectball.model.ScoringRules;
+import es.danirod.rectball.model.SplitMix64;
+import es.danirod.rectball.model.puzzle.Puzzle;
+import es.danirod.rectball.model.puzzle.PuzzleConstraints;
+import es.danirod.rectball.model.puzzle.PuzzleFormat;
+import es.danirod.rectball.model.puzzle.PuzzleGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Generates a pack of puzzles that meet some constraints, using every core
+ * of the computer. Every thread keeps generating boards until the pack is
+ * full, or until it has made a thousand attempts per requested puzzle.
+ * Puzzles that are the same board rotated, reflected or recolored are only
+ * kept once.
+ *
+ * <pre>
+ * GeneratePuzzles [--count N] [--board-size N] [--colors N] [--combinations N] [--perfect]
+ *                 [--min-area N] [--score S] [--tolerance T] [--steps N]
+ *                 [--threads N] [--seed S] FILE
+ * </pre>
+ *
+ * @since 0.5
+ */
+public class GeneratePuzzles {
+
+    private static final String USAGE =
+            "Usage: GeneratePuzzles [--count N] [--board-size N] [--colors N] [--combinations N] [--perfect]\n"
+                    + "                       [--min-area N] [--score S] [--tolerance T] [--steps N]\n"
+                    + "                       [--threads N] [--seed S] FILE";
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int count = 1000;
+        int boardSize = 6;
+        int colors = BallColor.DEFAULT_COUNT;
+        int steps = 2000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = System.nanoTime();
+        int score = -1, tolerance = 0;
+        PuzzleConstraints constraints = PuzzleConstraints.ANY;
+        String file = null;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--count":
+                        count = Integer.parseInt(args[++i]);
+                        break;
+                    case "--board-size":
+                        boardSize = Integer.parseInt(args[++i]);
+                        break;
+                    case "--colors":
+                        colors = Integer.parseInt(args[++i]);
+                        BallColor.checkCount(colors);
+                        break;
+                    case "--combinations":
+                        constraints = constraints.withCombinations(Integer.parseInt(args[++i]));
+                        break;
+                    case "--perfect":
+                        constraints = constraints.withPerfect(true);
+                        break;
+                    case "--min-area":
+                        constraints = constraints.withMinBestArea(Integer.parseInt(args[++i]));
+                        break;
+                    case "--score":
+                        score = Integer.parseInt(args[++i]);
+                        break;
+                    case "--tolerance":
+                        tolerance = Integer.parseInt(args[++i]);
+                        break;
+                    case "--steps":
+                        steps = Integer.parseInt(args[++i]);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(args[++i]);
+                        break;
+                    default:
+                        if (args[i].startsWith("--"))
+                            throw new IllegalArgumentException("Unknown option: " + args[i]);
+                        file = args[i];
+                }
+            }
+            if (score >= 0)
+                constraints = constraints.withOptimalScore(score, tolerance);
+            if (file == null || count < 1 || threads < 1 || steps < 1)
+                throw new IllegalArgumentException("Missing or invalid arguments");
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        final PuzzleGenerator generator = new PuzzleGenerator(boardSize, colors, constraints, ScoringRules.DEFAULT);
+        final Map<Long, Puzzle> puzzles = new ConcurrentHashMap<>();
+        final AtomicLong attempts = new AtomicLong();
+        final AtomicLong duplicates = new AtomicLong();
+        final int target = count, maxSteps = steps;
+        // Some constraints only have a few boards, give up at some point.
+        final long maxAttempts = 1000L * count;
+
+        // Split the random sources up front, so that every worker has its own.
+        SplitMix64 root = new SplitMix64(seed);
+        final List<RandomSource> sources = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            sources.add(root.split());
+        }
+
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.submit(() -> IntStream.range(0, sources.size()).parallel().forEach(worker -> {
+                RandomSource random = sources.get(worker);
+                while (puzzles.size() < target && attempts.incrementAndGet() <= maxAttempts) {
+                    Puzzle puzzle = generator.generate(random, maxSteps);
+                    if (puzzle != null && puzzles.putIfAbsent(puzzle.getKey(), puzzle) != null)
+                        duplicates.incrementAndGet();
+                }
+            })).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // Several workers can finish a puzzle at the same time, keep the
+        // requested amount in a stable order.
+        List<Puzzle> pack = puzzles.values().stream()
+                .sorted(Comparator.comparingLong(Puzzle::getKey))
+                .limit(count)
+                .collect(Collectors.toList());
+        byte[] data = PuzzleFormat.encode(pack);
+        Files.write(Paths.get(file), data);
+
+        if (pack.size() < count)
+            System.err.println("Only " + pack.size() + " different puzzles were found");
+        System.out.printf("%d puzzles in %.2f s (%.0f puzzles/s, %d threads): %d attempts, %d duplicates, %d bytes%n",
+                pack.size(), seconds, pack.size() / Math.max(seconds, 1e-9), threads, Math.min(attempts.get(), maxAttempts),
+                duplicates.get(), data.length);
+    }
+}
@@ -0,0 +1,145 @@
+/* This file is part of Rectball
+ * Copyright (C) 2015-2024  Dani Rodríguez
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package es.danirod.rectball.tools;
+
+import es.danirod.rectball.model.replay.Replay;
+import es.danirod.rectball.model.replay.ReplayFormat;
+import es.danirod.rectball.model.replay.ReplayResult;
+import es.danirod.rectball.model.replay.ReplayVerifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Verifies every replay in a directory, playing the replays in parallel.
+ * Rejected and unreadable replays are printed, followed by a summary. The
+ * exit code is 1 if any replay is not accepted.
+ *
+ * <pre>
+ * VerifyReplays [--threads N] [--tolerance SECONDS] [--verbose] DIRECTORY
+ * </pre>
+ *
+ * @since 0.5
+ */
+public class VerifyReplays {
+
+    /** The outcome for a single file. */
+    private static final class Outcome {
+        final Path path;
+        final ReplayVerifier.Verification verification;
+        final Replay replay;
+        final String error;
+
+        Outcome(Path path, Replay replay, ReplayVerifier.Verification verification, String error) {
+            this.path = path;
+            this.replay = replay;
+            this.verification = verification;
+            this.error = error;
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        float tolerance = 1f;
+        boolean verbose = false;
+        Path directory = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--tolerance":
+                    tolerance = Float.parseFloat(args[++i]);
+                    break;
+                case "--verbose":
+                    verbose = true;
+                    break;
+                default:
+                    directory = Paths.get(args[i]);
+            }
+        }
+        if (directory == null || threads < 1) {
+            System.err.println("Usage: VerifyReplays [--threads N] [--tolerance SECONDS] [--verbose] DIRECTORY");
+            System.exit(2);
+            return;
+        }
+
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            files = walk.filter(p -> p.toString().endsWith(".rbr")).collect(Collectors.toList());
+        }
+
+        final ReplayVerifier verifier = new ReplayVerifier(tolerance);
+        long start = System.nanoTime();
+        List<Outcome> outcomes;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            outcomes = pool.submit(() -> files.parallelStream()
+                    .map(path -> verify(verifier, path))
+                    .collect(Collectors.toList())).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        int accepted = 0, rejected = 0, unreadable = 0;
+        for (Outcome outcome : outcomes) {
+            if (outcome.error != null) {
+                unreadable++;
+                System.out.println(outcome.path + "\tUNREADABLE\t" + outcome.error);
+            } else if (outcome.verification.isAccepted()) {
+                accepted++;
+                if (verbose)
+                    print(outcome);
+            } else {
+                rejected++;
+                print(outcome);
+            }
+        }
+
+        double seconds = elapsed / 1e9;
+        System.out.printf("%d replays: %d accepted, %d rejected, %d unreadable in %.2f s (%.0f replays/s, %d threads)%n",
+                outcomes.size(), accepted, rejected, unreadable, seconds, outcomes.size() / Math.max(seconds, 1e-9), threads);
+        System.exit(rejected + unreadable > 0 ? 1 : 0);
+    }
+
+    private static Outcome verify(ReplayVerifier verifier, Path path) {
+        try {
+            Replay replay = ReplayFormat.decode(Files.readAllBytes(path));
+            return new Outcome(path, replay, verifier.verify(replay), null);
+        } catch (IOException e) {
+            return new Outcome(path, null, null, e.getMessage());
+        }
+    }
+
+    private static void print(Outcome outcome) {
+        ReplayResult result = outcome.verification.getResult();
+        String replayed = result == null ? "-" : Integer.toString(result.getScore());
+        System.out.println(outcome.path + "\t" + outcome.verification.getVerdict()
+                + "\tclaimed " + outcome.replay.getClaimedScore() + "\treplayed " + replayed);
+    }
+}